@@ -0,0 +1,50 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the batch simulation scales with the amount of threads.
+ * Games per second should grow close to linearly until the threads outnumber the cores.
+ * Run with: ./gradlew jmh -Pjmh.includes=BatchSimulationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchSimulationBenchmark {
+    private static final int GAMES = 1000;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return The results of a batch of intermediate games, each operation is one batch of GAMES games.
+     */
+    @Benchmark
+    public BatchSimulation.Result intermediate() {
+        return new BatchSimulation(16, 16, 40, 1).run(GAMES, pool);
+    }
+}
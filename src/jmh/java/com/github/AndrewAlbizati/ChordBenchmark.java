@@ -0,0 +1,168 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clears a board by clicking every safe tile, against flagging bombs and chording numbers like an experienced player.
+ * Both players know where the bombs are and their moves are worked out beforehand, so only the cost of playing them is measured.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChordBenchmark {
+    @Param({"EXPERT", "50x50x400"})
+    private String size;
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private long seed;
+    private Game game;
+    private int[] clicks;
+    private int[] chords;
+
+    @Setup(Level.Trial)
+    public void setUpSize() {
+        if (size.contains("x")) {
+            String[] parts = size.split("x");
+            rows = Integer.parseInt(parts[0]);
+            cols = Integer.parseInt(parts[1]);
+            mines = Integer.parseInt(parts[2]);
+        } else {
+            Difficulty difficulty = Difficulty.valueOf(size);
+            rows = difficulty.getRows();
+            cols = difficulty.getColumns();
+            mines = difficulty.getMines();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        // A different board every time, from a fixed sequence of seeds
+        seed++;
+        game = newGame();
+
+        // The moves of both players are worked out on copies of the game, so only playing them is measured
+        Game planned = newGame();
+        clicks = planClicks(planned, new int[planned.getHiddenTiles()], 0);
+        planned = newGame();
+        chords = planChords(planned);
+    }
+
+    private Game newGame() {
+        Game game = new Game(rows, cols, mines, seed);
+        game.onClick(rows / 2, cols / 2);
+        return game;
+    }
+
+    @Benchmark
+    public Game clickEverySafeTile() {
+        return play(clicks);
+    }
+
+    @Benchmark
+    public Game flagAndChord() {
+        return play(chords);
+    }
+
+    /**
+     * Plays moves the way /move does, where clicking a revealed number chords it.
+     */
+    private Game play(int[] moves) {
+        Board board = game.getBoard();
+        for (int move : moves) {
+            int position = Moves.getPosition(move);
+            int row = Position.getRow(position);
+            int col = Position.getColumn(position);
+            if (Moves.isFlag(move)) {
+                game.addFlag(row, col);
+            } else if (board.isRevealed(board.getIndex(row, col))) {
+                game.chord(row, col);
+            } else {
+                game.onClick(row, col);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Clicks every safe tile that is still hidden.
+     * @return The moves, added to the ones already in the array.
+     */
+    private static int[] planClicks(Game game, int[] moves, int count) {
+        Board board = game.getBoard();
+        for (int index = 0; index < board.size() && !game.hasWin(); index++) {
+            if (!board.hasMine(index) && !board.isRevealed(index)) {
+                moves = add(moves, count++, Moves.click(Position.pack(board.getRow(index), board.getColumn(index))));
+                game.onClick(board.getRow(index), board.getColumn(index));
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Flags the bombs around each number that still has hidden tiles around it and chords the number, until the board is cleared.
+     */
+    private static int[] planChords(Game game) {
+        Board board = game.getBoard();
+        int[] moves = new int[64];
+        int count = 0;
+        while (!game.hasWin()) {
+            int hidden = game.getHiddenTiles();
+            for (int index = 0; index < board.size(); index++) {
+                if (!board.isRevealed(index) || board.getNumber(index) == 0 || !hasHiddenNeighbour(board, index)) {
+                    continue;
+                }
+
+                for (int mask = board.getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+                    int neighbour = board.getNeighbour(index, mask);
+                    if (board.hasMine(neighbour) && !board.hasFlag(neighbour)) {
+                        moves = add(moves, count++, Moves.flag(Position.pack(board.getRow(neighbour), board.getColumn(neighbour))));
+                        game.addFlag(board.getRow(neighbour), board.getColumn(neighbour));
+                    }
+                }
+                moves = add(moves, count++, Moves.click(Position.pack(board.getRow(index), board.getColumn(index))));
+                game.chord(board.getRow(index), board.getColumn(index));
+            }
+
+            // Safe tiles closed in by bombs can't be reached by chording
+            if (game.getHiddenTiles() == hidden) {
+                int[] clicks = planClicks(game, new int[hidden], 0);
+                for (int click : clicks) {
+                    moves = add(moves, count++, click);
+                }
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    private static int[] add(int[] moves, int count, int move) {
+        if (count == moves.length) {
+            moves = Arrays.copyOf(moves, count * 2);
+        }
+        moves[count] = move;
+        return moves;
+    }
+
+    private static boolean hasHiddenNeighbour(Board board, int index) {
+        for (int mask = board.getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+            int neighbour = board.getNeighbour(index, mask);
+            if (!board.isRevealed(neighbour) && !board.hasMine(neighbour)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
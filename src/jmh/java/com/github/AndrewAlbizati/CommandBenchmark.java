@@ -0,0 +1,224 @@
+package com.github.AndrewAlbizati;
+
+import org.javacord.api.entity.Icon;
+import org.javacord.api.entity.channel.TextChannel;
+import org.javacord.api.entity.message.Message;
+import org.javacord.api.entity.user.User;
+import org.javacord.api.interaction.SlashCommandInteraction;
+import org.javacord.api.interaction.callback.InteractionOriginalResponseUpdater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sends /click, /flag, and /move to the bot's command table, from when a command is received until the player's reply
+ * is sent, and how many of each command the bot can handle per second.
+ * Discord is stubbed: the interaction only answers what the handlers ask for, and the reply and message edits complete
+ * right away. Edits aren't merged or spaced out, so only the bot's own work is measured; the bot adds up to 250ms of
+ * merging and 1s of spacing per channel on top of this.
+ * Each command plays on an Expert game that is a few moves in: /click and /move click safe tiles that are still hidden,
+ * and /flag places or removes a flag. Moves are saved to a move log like the bot does.
+ * Run with: ./gradlew jmh -Pjmh.includes=CommandBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandBenchmark {
+    private static final long PLAYER = 1;
+    private static final int MOVES = 5;
+
+    private Path directory;
+    private GameRegistry games;
+    private GameHistory history;
+    private Bot bot;
+
+    private Game game;
+    // The next tile to look for a hidden safe tile from
+    private int next;
+
+    // The command the stubbed interaction is for, and the reply it was given
+    private String command;
+    private String option;
+    private CompletableFuture<String> reply;
+    private SlashCommandInteraction interaction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("command-benchmark");
+        games = new GameRegistry(TimeUnit.DAYS.toMillis(1), 10);
+        GameStore store = new GameStore(directory.resolve("games"));
+        store.load();
+        history = new GameHistory(directory.resolve("history.dat"));
+        EditScheduler edits = new EditScheduler(0, 0, (message, embed) -> CompletableFuture.completedFuture(null));
+
+        bot = new Bot("", games, store, history, new NoGuessGenerator(0, 5000), new Metrics(), edits);
+        interaction = fakeInteraction();
+        newGame();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        history = null;
+        // The history file stays mapped until the buffer is collected, which some systems need before it can be deleted
+        System.gc();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void nextCommand() {
+        reply = new CompletableFuture<>();
+    }
+
+    @Benchmark
+    public String click() {
+        return send("click", nextSafeTile());
+    }
+
+    @Benchmark
+    public String flag() {
+        // The same tile is flagged and unflagged, so the game never runs out of moves
+        return send("flag", Position.format(0, 0));
+    }
+
+    @Benchmark
+    public String move() {
+        StringJoiner moves = new StringJoiner(" ");
+        for (int i = 0; i < MOVES; i++) {
+            moves.add(nextSafeTile());
+        }
+        return send("move", moves.toString());
+    }
+
+    private String send(String command, String option) {
+        this.command = command;
+        this.option = option;
+        bot.handle(interaction, System.nanoTime());
+
+        String content = reply.join();
+        // A click can open the rest of the board, which ends the game before the last moves of a /move
+        if (!content.equals(":thumbsup:") && !content.startsWith("The game ended")) {
+            throw new IllegalStateException("/" + command + " " + option + " was answered with: " + content);
+        }
+        return content;
+    }
+
+    /**
+     * @return The position of a safe tile that is still hidden, in a new game if this one has fewer than a /move's worth left.
+     */
+    private String nextSafeTile() {
+        Board board = game.getBoard();
+        int hidden = 0;
+        for (int index = next; index < board.size(); index++) {
+            // Tile A1 is kept for /flag
+            if (index != 0 && !board.hasMine(index) && !board.isRevealed(index) && ++hidden > MOVES) {
+                break;
+            }
+        }
+        if (hidden <= MOVES) {
+            newGame();
+            board = game.getBoard();
+        }
+
+        while (next == 0 || board.hasMine(next) || board.isRevealed(next)) {
+            next++;
+        }
+        return Position.format(board.getRow(next), board.getColumn(next));
+    }
+
+    private void newGame() {
+        if (game != null) {
+            games.remove(PLAYER, game);
+        }
+
+        Difficulty difficulty = Difficulty.EXPERT;
+        game = new Game(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines());
+        game.onClick(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+        game.setMessage(fakeMessage());
+        game.start();
+        games.create(PLAYER, game);
+        next = 0;
+    }
+
+    /**
+     * An interaction with only what the move commands use. Its reply completes the current command's future.
+     */
+    private SlashCommandInteraction fakeInteraction() throws IOException {
+        URL avatarUrl = new URL("https://cdn.discordapp.com/embed/avatars/0.png");
+        Icon avatar = fake(Icon.class, (name, args) -> switch (name) {
+            case "getUrl" -> avatarUrl;
+            default -> throw new UnsupportedOperationException(name);
+        });
+        User user = fake(User.class, (name, args) -> switch (name) {
+            case "getId" -> PLAYER;
+            case "getDiscriminatedName" -> "Player#0001";
+            case "getAvatar" -> avatar;
+            default -> throw new UnsupportedOperationException(name);
+        });
+
+        InteractionOriginalResponseUpdater[] updater = new InteractionOriginalResponseUpdater[1];
+        updater[0] = fake(InteractionOriginalResponseUpdater.class, (name, args) -> switch (name) {
+            case "setContent" -> {
+                reply.complete((String) args[0]);
+                yield updater[0];
+            }
+            case "update" -> CompletableFuture.completedFuture(null);
+            default -> throw new UnsupportedOperationException(name);
+        });
+
+        return fake(SlashCommandInteraction.class, (name, args) -> switch (name) {
+            case "getCommandName" -> command;
+            case "getOptionStringValueByIndex" -> Optional.of(option);
+            case "getUser" -> user;
+            case "getServer" -> Optional.empty();
+            case "respondLater" -> CompletableFuture.completedFuture(updater[0]);
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    /**
+     * A message with only an ID and a channel, since a real one needs a connection to Discord.
+     */
+    private static Message fakeMessage() {
+        TextChannel channel = fake(TextChannel.class, (name, args) -> switch (name) {
+            case "getId" -> 1L;
+            default -> throw new UnsupportedOperationException(name);
+        });
+        return fake(Message.class, (name, args) -> switch (name) {
+            case "getId" -> 1L;
+            case "getChannel" -> channel;
+            default -> throw new UnsupportedOperationException(name);
+        });
+    }
+
+    @FunctionalInterface
+    private interface FakeMethods {
+        Object call(String name, Object[] args);
+    }
+
+    private static <T> T fake(Class<T> type, FakeMethods methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> methods.call(method.getName(), args)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the first click of a game against how it used to work, on boards at expert density and denser.
+ * Bombs used to be placed anywhere on the board before the first click, and the whole board was made again until the
+ * clicked tile had no bombs around it, which takes more tries the denser the board is.
+ * Now the bombs are placed once on the first click, away from the clicked tile.
+ * Both paths make a new board, place its bombs, and reveal the opening from the middle of the board.
+ * The average amount of tries the old path took is printed at the end of each run.
+ * Run with: ./gradlew jmh -Pjmh.includes=FirstClickBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FirstClickBenchmark {
+    // Expert, a larger board at expert's 20.6% bombs, then 30% and 40% bombs
+    @Param({"16x30x99", "50x50x515", "16x30x144", "16x30x192"})
+    private String size;
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private int middle;
+
+    // The bombs and numbers of the old path's tries, before they are copied to a board
+    private long[] oldMines;
+    private byte[] oldNumbers;
+
+    private long clicks;
+    private long tries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = size.split("x");
+        rows = Integer.parseInt(parts[0]);
+        cols = Integer.parseInt(parts[1]);
+        mines = Integer.parseInt(parts[2]);
+        middle = rows / 2 * cols + cols / 2;
+
+        oldMines = new long[(rows * cols + 63) >>> 6];
+        oldNumbers = new byte[rows * cols];
+    }
+
+    @Benchmark
+    public int newFirstClick() {
+        Board board = new Board(rows, cols);
+        board.placeMines(mines, middle);
+        return board.reveal(middle);
+    }
+
+    @Benchmark
+    public int oldFirstClick() {
+        // Boards are made again until the clicked tile has no bomb and no number
+        do {
+            placeMinesAnywhere();
+            tries++;
+        } while (get(oldMines, middle) || oldNumbers[middle] != 0);
+        clicks++;
+
+        Board board = new Board(rows, cols);
+        for (int i = 0; i < rows * cols; i++) {
+            if (get(oldMines, i)) {
+                board.setMine(i);
+            }
+            board.setNumber(i, oldNumbers[i]);
+        }
+        return board.reveal(middle);
+    }
+
+    /**
+     * A copy of how bombs used to be placed, on any tile of the board.
+     */
+    private void placeMinesAnywhere() {
+        Arrays.fill(oldMines, 0L);
+        Arrays.fill(oldNumbers, (byte) 0);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = rows * cols;
+        for (int i = size - mines; i < size; i++) {
+            int index = random.nextInt(i + 1);
+            if (get(oldMines, index)) {
+                index = i;
+            }
+            oldMines[index >>> 6] |= 1L << index;
+
+            // Add the bomb to the number of every tile around it
+            int row = index / cols;
+            int col = index % cols;
+            for (int nr = Math.max(row - 1, 0); nr <= Math.min(row + 1, rows - 1); nr++) {
+                for (int nc = Math.max(col - 1, 0); nc <= Math.min(col + 1, cols - 1); nc++) {
+                    oldNumbers[nr * cols + nc]++;
+                }
+            }
+            oldNumbers[index]--;
+        }
+    }
+
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void printTries() {
+        if (clicks > 0) {
+            System.out.println();
+            System.out.printf("%s: the old first click made %.1f boards on average%n", size, (double) tries / clicks);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game engine on each difficulty.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameBenchmark {
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private Difficulty difficulty;
+
+    private Board board;
+    private BoardRenderer renderer;
+    private Game game;
+    private int middle;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        board = new Board(difficulty.getRows(), difficulty.getColumns());
+        middle = board.getIndex(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+        board.placeMines(difficulty.getMines(), middle);
+        renderer = new BoardRenderer(board);
+
+        game = new Game(difficulty);
+        game.onClick(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+    }
+
+    @Benchmark
+    public Board placeMines() {
+        board.placeMines(difficulty.getMines(), middle);
+        return board;
+    }
+
+    @Benchmark
+    public Game firstClick() {
+        Game fresh = new Game(difficulty);
+        fresh.onClick(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+        return fresh;
+    }
+
+    @Benchmark
+    public int reveal() {
+        board.hideAll();
+        return board.reveal(middle);
+    }
+
+    @Benchmark
+    public String renderAll() {
+        renderer.markAllChanged();
+        return renderer.render();
+    }
+
+    @Benchmark
+    public String renderOneRow() {
+        renderer.markChanged(middle);
+        return renderer.render();
+    }
+
+    @Benchmark
+    public String gameToString() {
+        return game.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the game history with millions of finished games in it: recording another game, reading a player's stats
+ * and a server's leaderboard as /stats and /leaderboard do, and opening the file again as the bot does when it starts.
+ * Games are spread over 100000 players in 1000 servers. How long filling the history took is printed before each run.
+ * Run with: ./gradlew jmh -Pjmh.includes=HistoryBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HistoryBenchmark {
+    private static final int PLAYERS = 100_000;
+    private static final int SERVERS = 1000;
+
+    @Param({"1000000", "5000000"})
+    private int records;
+
+    private Path directory;
+    private Path path;
+    private GameHistory history;
+    private final SplittableRandom random = new SplittableRandom(1);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-benchmark");
+        path = directory.resolve("history.dat");
+        history = new GameHistory(path);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            record();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println();
+        System.out.printf("Recorded %d games in %.2fs (%.0f games/s), %d byte file%n",
+                records, seconds, records / seconds, Files.size(path));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        history = null;
+        // The file stays mapped until the buffer is collected, which some systems need before it can be deleted
+        System.gc();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public GameHistory record() throws IOException {
+        Difficulty difficulty = Difficulty.values()[random.nextInt(Difficulty.values().length)];
+        history.record(random.nextInt(PLAYERS), random.nextInt(SERVERS), difficulty, random.nextInt(3) == 0,
+                10_000 + random.nextInt(1_000_000), 0);
+        return history;
+    }
+
+    @Benchmark
+    public GameHistory.PlayerStats stats() {
+        return history.getStats(random.nextInt(PLAYERS));
+    }
+
+    @Benchmark
+    public List<GameHistory.Leaderboard.Entry> leaderboard() {
+        return history.getLeaderboard(random.nextInt(SERVERS), Difficulty.EXPERT);
+    }
+
+    /**
+     * Reads every record to build the stats and leaderboards again, so each iteration is timed once.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameHistory open() throws IOException {
+        return new GameHistory(path);
+    }
+}
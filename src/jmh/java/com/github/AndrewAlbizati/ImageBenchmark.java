@@ -0,0 +1,96 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws and encodes a board as a PNG after each click, the way the bot does for boards too large for text.
+ * Each click is on the next safe tile that is still hidden, and a new game is started once the board is cleared.
+ * The average size of a frame is printed at the end of each run, to compare the compression levels.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageBenchmark {
+    @Param({"16x16x40", "30x16x99", "100x100x2000"})
+    private String size;
+
+    // Deflate level of the PNG, from 0 (smallest file) to 1 (fastest)
+    @Param({"0.0", "0.5", "1.0"})
+    private float quality;
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private long seed;
+
+    private Game game;
+    private ImageRenderer renderer;
+    private int next;
+    private int clickRow;
+    private int clickCol;
+
+    private long frames;
+    private long bytes;
+
+    @Setup(Level.Trial)
+    public void setUpSize() {
+        String[] parts = size.split("x");
+        rows = Integer.parseInt(parts[0]);
+        cols = Integer.parseInt(parts[1]);
+        mines = Integer.parseInt(parts[2]);
+        newGame();
+    }
+
+    private void newGame() {
+        // A different board every time, from a fixed sequence of seeds
+        game = new Game(rows, cols, mines, ++seed);
+        game.onClick(rows / 2, cols / 2);
+        renderer = new ImageRenderer(game.getBoard(), quality);
+        // The first frame draws every tile, later frames only the tiles a click changed
+        renderer.render();
+        next = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Board board = game.getBoard();
+        while (next < board.size() && (board.hasMine(next) || board.isRevealed(next))) {
+            next++;
+        }
+        if (next == board.size()) {
+            newGame();
+            setUp();
+            return;
+        }
+
+        clickRow = board.getRow(next);
+        clickCol = board.getColumn(next);
+    }
+
+    @Benchmark
+    public byte[] clickAndRender() {
+        game.onClick(clickRow, clickCol);
+        byte[] frame = renderer.render();
+        frames++;
+        bytes += frame.length;
+        return frame;
+    }
+
+    @TearDown(Level.Trial)
+    public void printFrameSize() {
+        System.out.println();
+        System.out.println(size + " at quality " + quality + ": " + bytes / Math.max(frames, 1) + " bytes per frame");
+    }
+}
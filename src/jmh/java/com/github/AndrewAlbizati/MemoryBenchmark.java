@@ -0,0 +1,151 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memory of a game's board against the Tile[][] layout it replaced, where every tile was its own object.
+ * The bytes of one board and one whole game are counted once per run by how much the thread allocates while making
+ * them, and printed before the run starts. The counts also include the few short-lived objects made along the way,
+ * so they are slightly more than what the board or game holds on to.
+ * The benchmarks time creating a board with its bombs and numbers in each layout.
+ * Run with: ./gradlew jmh -Pjmh.includes=MemoryBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemoryBenchmark {
+    // Boards are counted in batches, so the few bytes allocated while counting don't matter
+    private static final int COUNTED = 100;
+
+    @Param({"9x9x10", "16x16x40", "16x30x99", "100x100x2000", "1000x1000x150000"})
+    private String size;
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = size.split("x");
+        rows = Integer.parseInt(parts[0]);
+        cols = Integer.parseInt(parts[1]);
+        mines = Integer.parseInt(parts[2]);
+
+        int counted = rows * cols > 100_000 ? 5 : COUNTED;
+        Object[] kept = new Object[counted];
+
+        long before = getAllocatedBytes();
+        for (int i = 0; i < counted; i++) {
+            kept[i] = newBoard();
+        }
+        long board = (getAllocatedBytes() - before) / counted;
+
+        before = getAllocatedBytes();
+        for (int i = 0; i < counted; i++) {
+            kept[i] = newGame();
+        }
+        long game = (getAllocatedBytes() - before) / counted;
+
+        before = getAllocatedBytes();
+        for (int i = 0; i < counted; i++) {
+            kept[i] = newTiles();
+        }
+        long tiles = (getAllocatedBytes() - before) / counted;
+
+        System.out.println();
+        System.out.printf("%s: board %d bytes, game after first click %d bytes, Tile[][] %d bytes (%.1fx the board)%n",
+                size, board, game, tiles, (double) tiles / board);
+    }
+
+    @Benchmark
+    public Board newBoard() {
+        Board board = new Board(rows, cols);
+        board.placeMines(mines, board.getIndex(rows / 2, cols / 2), ++seed);
+        return board;
+    }
+
+    /**
+     * @return A game after its first click and render, which also holds the rendered rows.
+     */
+    public Game newGame() {
+        Game game = new Game(rows, cols, mines, ++seed);
+        game.onClick(rows / 2, cols / 2);
+        game.toString();
+        return game;
+    }
+
+    @Benchmark
+    public Tile[][] newTiles() {
+        Tile[][] tiles = new Tile[rows][cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                tiles[r][c] = new Tile(r, c);
+                tiles[r][c].text = ":white_medium_square:";
+            }
+        }
+
+        // Bombs were placed at random until there were enough, with numbers counted for every tile afterwards
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int placed = 0;
+        while (placed < mines) {
+            Tile tile = tiles[random.nextInt(rows)][random.nextInt(cols)];
+            if (!tile.hasBomb) {
+                tile.hasBomb = true;
+                placed++;
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int number = 0;
+                for (int i = Math.max(r - 1, 0); i <= Math.min(r + 1, rows - 1); i++) {
+                    for (int j = Math.max(c - 1, 0); j <= Math.min(c + 1, cols - 1); j++) {
+                        if (tiles[i][j].hasBomb) {
+                            number++;
+                        }
+                    }
+                }
+                tiles[r][c].number = number;
+            }
+        }
+        return tiles;
+    }
+
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * A copy of the tile every position on the board used to be, with the same fields.
+     */
+    public static class Tile {
+        private final int row;
+        private final int col;
+        private boolean revealed;
+        private boolean hasBomb;
+        private boolean hasFlag;
+        private int number;
+        private String text;
+
+        private Tile(int row, int col) {
+            this.row = row;
+            this.col = col;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.AndrewAlbizati;
+
+import org.javacord.api.entity.message.embed.EmbedBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays the same safe moves on an Expert board as one /click per move, and as a single /move.
+ * Discord is stubbed: each command waits one round trip before it is handled, and edits are sent to a sender that
+ * completes right away, so the difference per move is the round trip, render, and edit saved by batching.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoveBenchmark {
+    @Param({"10", "50"})
+    private int moveCount;
+
+    // Simulated time for a command to reach the bot, in microseconds
+    @Param({"0", "20000"})
+    private long roundTrip;
+
+    private EditScheduler edits;
+    private Game game;
+    private int[] moves;
+
+    @Setup(Level.Trial)
+    public void setUpEdits() {
+        // No merging or spacing of edits, so only the bot's own work is measured
+        edits = new EditScheduler(0, 0);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Difficulty difficulty = Difficulty.EXPERT;
+        game = new Game(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), 1);
+        game.onClick(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+
+        // The first safe tiles that are still hidden
+        Board board = game.getBoard();
+        moves = new int[moveCount];
+        int count = 0;
+        for (int index = 0; index < board.size() && count < moveCount; index++) {
+            if (!board.hasMine(index) && !board.isRevealed(index)) {
+                moves[count++] = Moves.click(Position.pack(board.getRow(index), board.getColumn(index)));
+            }
+        }
+    }
+
+    @Benchmark
+    public Game singleMoves() {
+        for (int move : moves) {
+            receive();
+            play(move);
+            edit();
+        }
+        return game;
+    }
+
+    @Benchmark
+    public Game batchMove() {
+        receive();
+        for (int move : moves) {
+            play(move);
+        }
+        edit();
+        return game;
+    }
+
+    private void receive() {
+        if (roundTrip > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTrip));
+        }
+    }
+
+    private void play(int move) {
+        int position = Moves.getPosition(move);
+        game.onClick(Position.getRow(position), Position.getColumn(position));
+    }
+
+    private void edit() {
+        EmbedBuilder builder = new EmbedBuilder();
+        builder.setTitle("Minesweeper");
+        builder.addField("Bombs left", String.valueOf(game.getMinesLeft()));
+        builder.setDescription(game.toString());
+        edits.edit(1, 1, builder, embed -> CompletableFuture.completedFuture(null)).join();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many no-guess boards of each difficulty can be made per second on one thread.
+ * attempt checks one random board with the solver, whether it turns out to need guessing or not, and solvedBoard checks
+ * boards until one can be solved without guessing, which is what filling a BoardPool costs per board.
+ * The share of boards that can be solved without guessing is printed before each run.
+ * Run with: ./gradlew jmh -Pjmh.includes=NoGuessBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NoGuessBenchmark {
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private Difficulty difficulty;
+
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int tried = 1000;
+        int solved = 0;
+        for (long boardSeed = 1; boardSeed <= tried; boardSeed++) {
+            if (NoGuessGenerator.tryBoard(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), boardSeed) != null) {
+                solved++;
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%s: %.1f%% of boards can be solved without guessing, %.1f boards checked per board found%n",
+                difficulty, 100.0 * solved / tried, (double) tried / Math.max(solved, 1));
+    }
+
+    @Benchmark
+    public Board attempt() {
+        return NoGuessGenerator.tryBoard(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), ++seed);
+    }
+
+    @Benchmark
+    public Board solvedBoard() {
+        Board board = null;
+        while (board == null) {
+            board = NoGuessGenerator.tryBoard(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), ++seed);
+        }
+        return board;
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many boards per second placeMines can fill, from the presets up to the largest custom boards, with
+ * few bombs, about as many as Expert, and many. The middle tile is kept clear, as on a first click there.
+ * Run with: ./gradlew jmh -Pjmh.includes=PlaceMinesBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PlaceMinesBenchmark {
+    @Param({"9x9", "16x30", "100x100", "300x300", "1000x1000"})
+    private String size;
+
+    // Share of the tiles with a bomb, Expert has 20.6%
+    @Param({"0.1", "0.2", "0.4"})
+    private double density;
+
+    private Board board;
+    private int mines;
+    private int middle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = size.split("x");
+        int rows = Integer.parseInt(parts[0]);
+        int cols = Integer.parseInt(parts[1]);
+        board = new Board(rows, cols);
+        mines = (int) Math.round(rows * cols * density);
+        middle = board.getIndex(rows / 2, cols / 2);
+    }
+
+    @Benchmark
+    public Board placeMines() {
+        board.placeMines(mines, middle);
+        return board;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a no-guess /play takes with and without boards kept ready by a BoardPool.
+ * Each operation is what the bot does for one /play: it gets a board from the generator, then makes the game use it
+ * and draws it in the game's mailbox, leaving out the Discord calls.
+ * With a pool, every /play waits until the pool is full again first, so each one takes a ready board as it would
+ * between players. Players coming faster than the pool refills get boards generated while they wait, like no pool.
+ * The pool's hits and misses are printed at the end of each run.
+ * Run with: ./gradlew jmh -Pjmh.includes=PlayBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayBenchmark {
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT"})
+    private Difficulty difficulty;
+
+    // The bot keeps 4 boards ready for each difficulty
+    @Param({"0", "4"})
+    private int poolSize;
+
+    private NoGuessGenerator generator;
+    private BoardPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new NoGuessGenerator(poolSize, 5000);
+        pool = generator.getPool(difficulty);
+    }
+
+    @Setup(Level.Invocation)
+    public void waitForPool() throws InterruptedException {
+        while (pool != null && pool.getDepth() < poolSize) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Benchmark
+    public Object play() {
+        Game game = new Game(difficulty);
+        return generator.generate(game.getRows(), game.getColumns(), game.getMines())
+                .thenCompose(layout -> game.getMailbox().submit(() -> {
+                    game.useLayout(layout);
+                    return game.isDrawnAsImage() ? game.renderImage() : game.toString();
+                }))
+                .join();
+    }
+
+    @TearDown(Level.Trial)
+    public void printPool() {
+        if (pool != null) {
+            System.out.println();
+            System.out.printf("%s: %d boards taken from the pool, %d generated while waiting%n",
+                    difficulty, pool.getHits(), pool.getMisses());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of reading the positions typed into /click and /flag, against the substring and parseInt checks they replaced.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PositionBenchmark {
+    // A mix of short, long, and invalid positions
+    private final String[] positions = {"A5", "e6", "P30", "AB12", "zz99", "I9", "A", "5A", "A0", "ABC1", "B7 ", "Q10"};
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String position : positions) {
+            blackhole.consume(Position.parse(position));
+        }
+    }
+
+    @Benchmark
+    public void substring(Blackhole blackhole) {
+        for (String position : positions) {
+            if (position.length() < 2 || position.length() > 3
+                    || !Character.isLetter(position.charAt(0)) || !position.substring(1).chars().allMatch(Character::isDigit)) {
+                blackhole.consume(-1);
+                continue;
+            }
+            int row = Character.toLowerCase(position.charAt(0)) - 'a';
+            int col = Integer.parseInt(position.substring(1)) - 1;
+            blackhole.consume(row << 16 | col);
+        }
+    }
+}
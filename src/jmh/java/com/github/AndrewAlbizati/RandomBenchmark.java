@@ -0,0 +1,55 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares random generators for placing the bombs of an expert board on every core at once.
+ * The shared generator is what Math.random() uses, and is what boards were generated with before seeds.
+ * Run with: ./gradlew jmh -Pjmh.includes=RandomBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(Threads.MAX)
+public class RandomBenchmark {
+    private static final Random SHARED = new Random();
+
+    private Board board;
+    private int middle;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        board = new Board(Difficulty.EXPERT.getRows(), Difficulty.EXPERT.getColumns());
+        middle = board.getIndex(Difficulty.EXPERT.getRows() / 2, Difficulty.EXPERT.getColumns() / 2);
+    }
+
+    @Benchmark
+    public Board sharedRandom() {
+        board.placeMines(Difficulty.EXPERT.getMines(), middle, SHARED);
+        return board;
+    }
+
+    @Benchmark
+    public Board threadLocalRandom() {
+        board.placeMines(Difficulty.EXPERT.getMines(), middle, ThreadLocalRandom.current());
+        return board;
+    }
+
+    @Benchmark
+    public Board seeded() {
+        board.placeMines(Difficulty.EXPERT.getMines(), middle, seed++);
+        return board;
+    }
+}
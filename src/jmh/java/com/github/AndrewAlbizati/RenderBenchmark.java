@@ -0,0 +1,89 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a board after each move, reusing the rows that didn't change against rendering every row again, which is
+ * what every move cost before rows were kept.
+ * Each move places or removes a flag on a random hidden tile, so only one row changes. The boards have 20% bombs and
+ * the opening around the middle revealed. Boards past Expert are rendered whole, as text far longer than an embed.
+ * Run with: ./gradlew jmh -Pjmh.includes=RenderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RenderBenchmark {
+    @Param({"9x9", "16x30", "50x50", "100x100", "300x300"})
+    private String size;
+
+    private Board board;
+    private BoardRenderer renderer;
+    // The hidden tiles that moves are made on, in a random order
+    private int[] hidden;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = size.split("x");
+        int rows = Integer.parseInt(parts[0]);
+        int cols = Integer.parseInt(parts[1]);
+        board = new Board(rows, cols);
+        int middle = board.getIndex(rows / 2, cols / 2);
+        board.placeMines(rows * cols / 5, middle, 1L);
+        board.reveal(middle);
+
+        hidden = new int[board.size()];
+        int count = 0;
+        for (int index = 0; index < board.size(); index++) {
+            if (!board.isRevealed(index)) {
+                hidden[count++] = index;
+            }
+        }
+        Random random = new Random(1);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = hidden[i];
+            hidden[i] = hidden[j];
+            hidden[j] = swap;
+        }
+        hidden = Arrays.copyOf(hidden, count);
+
+        renderer = new BoardRenderer(board);
+        renderer.render();
+    }
+
+    @Benchmark
+    public String cached() {
+        renderer.markChanged(move());
+        return renderer.render();
+    }
+
+    @Benchmark
+    public String full() {
+        move();
+        renderer.markAllChanged();
+        return renderer.render();
+    }
+
+    /**
+     * @return The index of the tile that was flagged or unflagged.
+     */
+    private int move() {
+        int index = hidden[next];
+        next = (next + 1) % hidden.length;
+        board.setFlag(index, !board.hasFlag(index));
+        return index;
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reveals the opening of a board from its middle, on boards up to 1000x1000.
+ * The recursive reveal this replaced ran out of stack on openings of a few thousand tiles, so the largest boards
+ * can only be revealed with the flood fill. The bombs are spread thinly so the opening covers most of the board.
+ * The average amount of tiles revealed per operation is printed at the end of each run.
+ * Run with: ./gradlew jmh -Pjmh.includes=RevealBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RevealBenchmark {
+    @Param({"9x9", "30x16", "100x100", "300x300", "1000x1000"})
+    private String size;
+
+    // Bombs per 100 tiles, where 2 reveals most of the board from one click and 10 reveals small openings
+    @Param({"2", "10"})
+    private int density;
+
+    private Board board;
+    private int middle;
+
+    private long operations;
+    private long tiles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = size.split("x");
+        int rows = Integer.parseInt(parts[0]);
+        int cols = Integer.parseInt(parts[1]);
+        board = new Board(rows, cols);
+        middle = board.getIndex(rows / 2, cols / 2);
+        board.placeMines(Math.min(rows * cols * density / 100, rows * cols - 9), middle, 1);
+    }
+
+    @Benchmark
+    public int reveal() {
+        board.hideAll();
+        int revealed = board.reveal(middle);
+        operations++;
+        tiles += revealed;
+        return revealed;
+    }
+
+    @TearDown(Level.Trial)
+    public void printTiles() {
+        System.out.println();
+        System.out.println(size + " with " + density + "% bombs: " + tiles / Math.max(operations, 1) + " tiles per reveal");
+    }
+}
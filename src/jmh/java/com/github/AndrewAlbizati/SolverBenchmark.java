@@ -0,0 +1,81 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long /hint takes on mid-game positions, and how the step budget of the solver affects it.
+ * The positions are taken from seeded games played by the solver, at every point where the single tile and subset
+ * rules can't find a safe tile, since those are the hints that have to count arrangements.
+ * Each operation is one hint from a new solver, as /hint does. Before each run, the share of positions that ran out of
+ * steps and had to be estimated is printed, with the average and most steps taken.
+ * Run with: ./gradlew jmh -Pjmh.includes=SolverBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolverBenchmark {
+    private static final int POSITIONS = 200;
+
+    @Param({"INTERMEDIATE", "EXPERT"})
+    private Difficulty difficulty;
+
+    // The solver's budget is 2000000 steps
+    @Param({"20000", "200000", "2000000", "20000000"})
+    private long stepBudget;
+
+    private final List<Board> positions = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (long seed = 1; positions.size() < POSITIONS; seed++) {
+            Game game = new Game(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), seed);
+            game.onClick(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+            Solver solver = new Solver(game.getBoard(), difficulty.getMines());
+            while (!game.hasEnded() && !game.hasWin() && positions.size() < POSITIONS) {
+                Solver.Hint hint = solver.findSafeByRules();
+                if (hint == null) {
+                    Board position = new Board(difficulty.getRows(), difficulty.getColumns());
+                    position.copyFrom(game.getBoard());
+                    positions.add(position);
+                    hint = solver.hint();
+                }
+                game.onClick(hint.row(), hint.col());
+            }
+        }
+
+        int estimated = 0;
+        long steps = 0;
+        long mostSteps = 0;
+        for (Board position : positions) {
+            Solver solver = new Solver(position, difficulty.getMines(), stepBudget);
+            solver.hint();
+            estimated += solver.wasEstimated() ? 1 : 0;
+            steps += solver.getStepsUsed();
+            mostSteps = Math.max(mostSteps, solver.getStepsUsed());
+        }
+
+        System.out.println();
+        System.out.printf("%s with a budget of %d steps: %.1f%% of positions estimated, %d steps on average, %d at most%n",
+                difficulty, stepBudget, 100.0 * estimated / positions.size(), steps / positions.size(), mostSteps);
+    }
+
+    @Benchmark
+    public Solver.Hint hint() {
+        Board position = positions.get(next);
+        next = (next + 1) % positions.size();
+        return new Solver(position, difficulty.getMines(), stepBudget).hint();
+    }
+}
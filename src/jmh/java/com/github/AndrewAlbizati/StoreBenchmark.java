@@ -0,0 +1,108 @@
+package com.github.AndrewAlbizati;
+
+import org.javacord.api.entity.channel.TextChannel;
+import org.javacord.api.entity.message.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes a snapshot of every live game and reads it back, as the bot does when compacting and when it starts.
+ * The games are spread evenly over the difficulties, each a few moves in. Each operation is one whole snapshot or
+ * restore, so every iteration is timed once. The snapshot's bytes per game are printed before each run.
+ * Run with: ./gradlew jmh -Pjmh.includes=StoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StoreBenchmark {
+    @Param({"10000", "100000"})
+    private int games;
+
+    private Path directory;
+    private GameRegistry registry;
+    private GameStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("store-benchmark");
+        registry = new GameRegistry(TimeUnit.DAYS.toMillis(1), games);
+        store = new GameStore(directory);
+        store.load();
+
+        Difficulty[] difficulties = Difficulty.values();
+        Random random = new Random(1);
+        for (int i = 0; i < games; i++) {
+            Difficulty difficulty = difficulties[i % difficulties.length];
+            Game game = new Game(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), i + 1);
+            game.onClick(difficulty.getRows() / 2, difficulty.getColumns() / 2);
+            for (int move = 0; move < 5 && !game.hasEnded(); move++) {
+                game.onClick(random.nextInt(difficulty.getRows()), random.nextInt(difficulty.getColumns()));
+            }
+            // Games without a message aren't written to snapshots
+            game.setMessage(fakeMessage(i + 1));
+            registry.create(i, game);
+        }
+
+        store.compact(registry);
+        long bytes = Files.size(directory.resolve("games.dat"));
+        System.out.println();
+        System.out.printf("%d games: %d byte snapshot, %d bytes per game%n", games, bytes, bytes / games);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public GameStore snapshot() throws IOException {
+        store.compact(registry);
+        return store;
+    }
+
+    @Benchmark
+    public Map<Long, Game> restore() throws IOException {
+        return new GameStore(directory).load();
+    }
+
+    /**
+     * A message with only an ID and a channel, since a real one needs a connection to Discord.
+     */
+    private static Message fakeMessage(long id) {
+        TextChannel channel = (TextChannel) Proxy.newProxyInstance(TextChannel.class.getClassLoader(), new Class<?>[] {TextChannel.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getId")) {
+                        return 1L;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return (Message) Proxy.newProxyInstance(Message.class.getClassLoader(), new Class<?>[] {Message.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "getChannel" -> channel;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.AndrewAlbizati;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a game's board after each click, as the bot shows it, against rendering the whole board as text.
+ * Boards larger than Game.MAX_SHOWN_SIZE only render the window that follows the click, so their render time stays
+ * the same as the board grows, while rendering the whole board grows with it.
+ * Each click is on the next safe tile that is still hidden and is made before the render is timed.
+ * Run with: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ViewBenchmark {
+    @Param({"9x9x10", "30x30x135", "100x100x1500", "300x300x13500", "1000x1000x150000"})
+    private String size;
+
+    private int rows;
+    private int cols;
+    private int mines;
+    private long seed;
+
+    private Game game;
+    private BoardRenderer wholeBoard;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpSize() {
+        String[] parts = size.split("x");
+        rows = Integer.parseInt(parts[0]);
+        cols = Integer.parseInt(parts[1]);
+        mines = Integer.parseInt(parts[2]);
+        newGame();
+    }
+
+    private void newGame() {
+        // A different board every time, from a fixed sequence of seeds
+        game = new Game(rows, cols, mines, ++seed);
+        game.onClick(rows / 2, cols / 2);
+        game.toString();
+        wholeBoard = new BoardRenderer(game.getBoard());
+        wholeBoard.render();
+        next = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void click() {
+        Board board = game.getBoard();
+        while (next < board.size() && (board.hasMine(next) || board.isRevealed(next))) {
+            next++;
+        }
+        if (next == board.size()) {
+            newGame();
+            click();
+            return;
+        }
+
+        int hidden = game.getHiddenTiles();
+        game.onClick(board.getRow(next), board.getColumn(next));
+        // The whole board renderer isn't part of the game, so it is told about the revealed tiles here
+        for (int i = 0; i < hidden - game.getHiddenTiles(); i++) {
+            wholeBoard.markChanged(board.getRevealedTile(i));
+        }
+    }
+
+    @Benchmark
+    public String renderGame() {
+        return game.toString();
+    }
+
+    @Benchmark
+    public String renderWholeBoard() {
+        return wholeBoard.render();
+    }
+}
@@ -0,0 +1,250 @@
+package com.github.AndrewAlbizati;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plays many seeded games of one board size with the solver across every core, used to tune how hard a board size is.
+ * Every game gets its own seed made from the batch seed and the game's number, so a batch gives the same results
+ * no matter how many cores it runs on or in which order the games finish.
+ * Run with: java -cp minesweeper-bot-1.0.0.jar com.github.AndrewAlbizati.BatchSimulation [seed] [games] [difficulty or RxCxM]...
+ */
+public class BatchSimulation {
+    // Games with this many guesses or more are counted together
+    private static final int MAX_GUESSES = 10;
+
+    private final int rows;
+    private final int cols;
+    private final int mines;
+    private final long seed;
+
+    /**
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     * @param seed The seed of the batch.
+     */
+    public BatchSimulation(int rows, int cols, int mines, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the games on the common fork-join pool.
+     * @param games The amount of games to play.
+     * @return The combined results of every game.
+     */
+    public Result run(int games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays the games as a parallel stream on a fork-join pool, each worker keeps its own results until they are merged.
+     * @param games The amount of games to play.
+     * @param pool The pool that plays the games.
+     * @return The combined results of every game.
+     */
+    public Result run(int games, ForkJoinPool pool) {
+        return pool.submit(() -> IntStream.range(0, games)
+                .parallel()
+                .collect(() -> new Result(rows, cols, mines, seed), this::play, Result::merge))
+                .join();
+    }
+
+    /**
+     * Plays one game with the solver from the middle of the board, and adds it to the results.
+     */
+    private void play(Result result, int number) {
+        Game game = new Game(rows, cols, mines, seed(number));
+        Board board = game.getBoard();
+
+        int guesses = 0;
+        while (!game.hasEnded() && !game.hasWin()) {
+            Solver.Hint hint = game.getHint();
+            if (!hint.isSafe()) {
+                guesses++;
+                result.guessTiles[board.getIndex(hint.row(), hint.col())]++;
+            }
+            game.onClick(hint.row(), hint.col());
+        }
+
+        result.games++;
+        result.guesses += guesses;
+        result.gamesByGuesses[Math.min(guesses, MAX_GUESSES)]++;
+        if (game.hasWin()) {
+            result.wins++;
+            result.winsByGuesses[Math.min(guesses, MAX_GUESSES)]++;
+        }
+    }
+
+    /**
+     * Mixes the batch seed with a game's number, so games next to each other get unrelated boards.
+     */
+    private long seed(int number) {
+        long z = seed + (number + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The results of a batch: wins, how many guesses each game needed, and where the guesses were made.
+     */
+    public static class Result {
+        private final int rows;
+        private final int cols;
+        private final int mines;
+        private final long seed;
+
+        private int games;
+        private int wins;
+        private long guesses;
+        private final int[] gamesByGuesses = new int[MAX_GUESSES + 1];
+        private final int[] winsByGuesses = new int[MAX_GUESSES + 1];
+        // How many times a guess had to be made on each tile
+        private final long[] guessTiles;
+
+        private Result(int rows, int cols, int mines, long seed) {
+            this.rows = rows;
+            this.cols = cols;
+            this.mines = mines;
+            this.seed = seed;
+            guessTiles = new long[rows * cols];
+        }
+
+        private void merge(Result other) {
+            games += other.games;
+            wins += other.wins;
+            guesses += other.guesses;
+            for (int i = 0; i <= MAX_GUESSES; i++) {
+                gamesByGuesses[i] += other.gamesByGuesses[i];
+                winsByGuesses[i] += other.winsByGuesses[i];
+            }
+            for (int i = 0; i < guessTiles.length; i++) {
+                guessTiles[i] += other.guessTiles[i];
+            }
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public double getWinRate() {
+            return (double) wins / games;
+        }
+
+        /**
+         * @return Half the width of the 95% confidence interval of the win rate.
+         */
+        public double getWinRateMargin() {
+            double winRate = getWinRate();
+            return 1.96 * Math.sqrt(winRate * (1 - winRate) / games);
+        }
+
+        public double getAverageGuesses() {
+            return (double) guesses / games;
+        }
+
+        /**
+         * @param guesses The amount of guesses, where MAX_GUESSES also counts games with more guesses.
+         * @return The amount of games that needed that many guesses.
+         */
+        public int getGamesWithGuesses(int guesses) {
+            return gamesByGuesses[guesses];
+        }
+
+        /**
+         * @param index The index of a tile.
+         * @return How many times a guess had to be made on the tile.
+         */
+        public long getGuessesOnTile(int index) {
+            return guessTiles[index];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%dx%d, %d bombs, seed %d: %d games%n", rows, cols, mines, seed, games));
+            sb.append(String.format("Win rate %.2f%% (+/- %.2f%%), %.2f guesses per game%n", getWinRate() * 100, getWinRateMargin() * 100, getAverageGuesses()));
+
+            for (int i = 0; i <= MAX_GUESSES; i++) {
+                if (gamesByGuesses[i] == 0) {
+                    continue;
+                }
+                sb.append(String.format("  %s%s: %.2f%% of games, %.2f%% won%n", i, i == MAX_GUESSES ? "+ guesses" : i == 1 ? " guess" : " guesses",
+                        100.0 * gamesByGuesses[i] / games, 100.0 * winsByGuesses[i] / gamesByGuesses[i]));
+            }
+
+            // Guesses per tile in corners, along edges, and inside the board
+            long[] guessesByArea = new long[3];
+            int[] tilesByArea = new int[3];
+            List<Integer> tiles = new ArrayList<>();
+            for (int index = 0; index < guessTiles.length; index++) {
+                int row = index / cols;
+                int col = index % cols;
+                int edges = (row == 0 || row == rows - 1 ? 1 : 0) + (col == 0 || col == cols - 1 ? 1 : 0);
+                int area = edges == 2 ? 0 : edges == 1 ? 1 : 2;
+                guessesByArea[area] += guessTiles[index];
+                tilesByArea[area]++;
+                tiles.add(index);
+            }
+            sb.append("Forced guesses per 1000 games on each tile:");
+            String[] areas = {"corner", "edge", "inside"};
+            for (int area = 0; area < areas.length; area++) {
+                if (tilesByArea[area] > 0) {
+                    sb.append(String.format(" %s %.1f", areas[area], 1000.0 * guessesByArea[area] / tilesByArea[area] / games));
+                }
+            }
+            sb.append(String.format("%n"));
+
+            tiles.sort((a, b) -> Long.compare(guessTiles[b], guessTiles[a]));
+            sb.append("Most guessed tiles:");
+            for (int index : tiles.subList(0, Math.min(5, tiles.size()))) {
+                sb.append(String.format(" %s (%.1f)", getPosition(index), 1000.0 * guessTiles[index] / games));
+            }
+            return sb.toString();
+        }
+
+        private String getPosition(int index) {
+            return Position.format(index / cols, index % cols);
+        }
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        List<int[]> sizes = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            String[] parts = args[i].split("x");
+            if (parts.length == 3) {
+                sizes.add(new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])});
+            } else {
+                Difficulty difficulty = Difficulty.valueOf(args[i].toUpperCase());
+                sizes.add(new int[] {difficulty.getRows(), difficulty.getColumns(), difficulty.getMines()});
+            }
+        }
+        if (sizes.isEmpty()) {
+            for (Difficulty difficulty : Difficulty.values()) {
+                sizes.add(new int[] {difficulty.getRows(), difficulty.getColumns(), difficulty.getMines()});
+            }
+        }
+
+        for (int[] size : sizes) {
+            long start = System.nanoTime();
+            Result result = new BatchSimulation(size[0], size[1], size[2], seed).run(games);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println(result);
+            System.out.printf("Took %.2fs (%.0f games/s) on %d threads%n%n", seconds, games / seconds, ForkJoinPool.commonPool().getParallelism());
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.github.AndrewAlbizati;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Stores the tiles of a Minesweeper board in primitive arrays instead of one object per tile.
+ * Bombs, revealed tiles and flags are each kept in a bitset, adjacent bomb counts are kept in one byte per tile.
+ * Tiles are addressed by their index, which is row * columns + column.
+ */
+public class Board {
+    private final int rows;
+    private final int cols;
+
+    private final long[] mines;
+    private final long[] revealed;
+    private final long[] flags;
+    private final byte[] numbers;
+
+    // How far each of the 8 neighbours of a tile is from the tile, in index order
+    private final int[] neighbourOffsets;
+
+    // The seed the bombs were placed with, if they were placed from a seed
+    private long seed;
+
+    // Boards that share their bombs with another board can't have their bombs changed
+    private boolean shared = false;
+
+    // Tiles revealed by the last call to reveal() on each thread, also used as the flood fill's work queue
+    // Kept per thread instead of per board, so a board doesn't hold a queue while nobody is clicking it
+    private static final ThreadLocal<int[]> REVEALED_TILES = ThreadLocal.withInitial(() -> new int[0]);
+
+    // Bits of the neighbours in each direction, see getNeighbourMask()
+    private static final int ALL_NEIGHBOURS = 0b1111_1111;
+    private static final int ABOVE = 0b0000_0111;
+    private static final int BELOW = 0b1110_0000;
+    private static final int LEFT = 0b0010_1001;
+    private static final int RIGHT = 0b1001_0100;
+
+    /**
+     * Creates an empty board with no bombs, flags, or revealed tiles.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     */
+    public Board(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+
+        int words = (rows * cols + 63) >>> 6;
+        mines = new long[words];
+        revealed = new long[words];
+        flags = new long[words];
+        numbers = new byte[rows * cols];
+        neighbourOffsets = createNeighbourOffsets(cols);
+    }
+
+    private static int[] createNeighbourOffsets(int cols) {
+        return new int[] {-cols - 1, -cols, -cols + 1, -1, 1, cols - 1, cols, cols + 1};
+    }
+
+    /**
+     * Creates a board that shares the bombs and numbers of another board, with its own revealed tiles and flags.
+     */
+    private Board(Board layout) {
+        rows = layout.rows;
+        cols = layout.cols;
+        seed = layout.seed;
+        shared = true;
+
+        mines = layout.mines;
+        numbers = layout.numbers;
+        neighbourOffsets = layout.neighbourOffsets;
+        revealed = layout.revealed.clone();
+        flags = new long[layout.flags.length];
+    }
+
+    /**
+     * Creates a board for one player on top of this board, used when many games are played on the same bombs.
+     * The new board shares this board's bombs and numbers, so it only needs its own revealed tiles and flags,
+     * and starts with the tiles that are revealed on this board. The bombs of both boards can't be changed afterwards.
+     * @return The new board.
+     */
+    public Board overlay() {
+        shared = true;
+        return new Board(this);
+    }
+
+    private void checkNotShared() {
+        if (shared) {
+            throw new IllegalStateException("The bombs of a shared board can't be changed");
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return cols;
+    }
+
+    public int size() {
+        return numbers.length;
+    }
+
+    public int getIndex(int row, int col) {
+        return row * cols + col;
+    }
+
+    public int getRow(int index) {
+        return index / cols;
+    }
+
+    public int getColumn(int index) {
+        return index % cols;
+    }
+
+    /**
+     * Gets which of the 8 tiles around a tile are on the board, used with getNeighbour() to visit them without bounds checks:
+     * {@code for (int mask = getNeighbourMask(index); mask != 0; mask &= mask - 1)}.
+     * Bit k is the k-th neighbour in index order, so the lowest bit is the tile above and to the left.
+     * @param index The index of the tile.
+     * @return A bit for each neighbour that is on the board.
+     */
+    public int getNeighbourMask(int index) {
+        int row = index / cols;
+        int col = index % cols;
+
+        int mask = ALL_NEIGHBOURS;
+        if (row == 0) {
+            mask &= ~ABOVE;
+        }
+        if (row == rows - 1) {
+            mask &= ~BELOW;
+        }
+        if (col == 0) {
+            mask &= ~LEFT;
+        }
+        if (col == cols - 1) {
+            mask &= ~RIGHT;
+        }
+        return mask;
+    }
+
+    /**
+     * @param index The index of a tile.
+     * @param mask A neighbour mask of the tile, where the lowest bit set is the neighbour to get.
+     * @return The index of the neighbour.
+     */
+    public int getNeighbour(int index, int mask) {
+        return index + neighbourOffsets[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    /**
+     * @return The seed the bombs were placed with, or 0 if they weren't placed from a seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean hasMine(int index) {
+        return get(mines, index);
+    }
+
+    public boolean isRevealed(int index) {
+        return get(revealed, index);
+    }
+
+    public boolean hasFlag(int index) {
+        return get(flags, index);
+    }
+
+    /**
+     * @param index The index of the tile.
+     * @return The amount of bombs adjacent to the tile.
+     */
+    public int getNumber(int index) {
+        return numbers[index];
+    }
+
+    public void setMine(int index) {
+        checkNotShared();
+        set(mines, index);
+    }
+
+    public void setRevealed(int index) {
+        set(revealed, index);
+    }
+
+    public void setFlag(int index, boolean flag) {
+        if (flag) {
+            set(flags, index);
+        } else {
+            clear(flags, index);
+        }
+    }
+
+    public void setNumber(int index, int number) {
+        checkNotShared();
+        numbers[index] = (byte) number;
+    }
+
+    /**
+     * Places bombs on randomly chosen tiles, never on or around the given tile, so that it has no adjacent bombs.
+     * Bombs are picked with Robert Floyd's sampling algorithm, which needs one random number per bomb,
+     * and the numbers of the surrounding tiles are updated as each bomb is placed.
+     * @param count The amount of bombs to place.
+     * @param safeIndex The index of the tile to keep clear, usually the first tile clicked.
+     */
+    public void placeMines(int count, int safeIndex) {
+        placeMines(count, safeIndex, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Places bombs like placeMines(count, safeIndex), picking tiles with a SplittableRandom made from a seed.
+     * The same seed and safe tile always give the same board.
+     * @param count The amount of bombs to place.
+     * @param safeIndex The index of the tile to keep clear, usually the first tile clicked.
+     * @param seed The seed of the generator.
+     */
+    public void placeMines(int count, int safeIndex, long seed) {
+        checkNotShared();
+        this.seed = seed;
+        placeMines(count, safeIndex, new SplittableRandom(seed));
+    }
+
+    /**
+     * Places bombs like placeMines(count, safeIndex), picking tiles with the given generator so the board can be made again.
+     * @param count The amount of bombs to place.
+     * @param safeIndex The index of the tile to keep clear, usually the first tile clicked.
+     * @param random Picks the tiles.
+     */
+    public void placeMines(int count, int safeIndex, RandomGenerator random) {
+        checkNotShared();
+        Arrays.fill(mines, 0L);
+        Arrays.fill(numbers, (byte) 0);
+
+        // Indexes of the safe tile and its neighbours, in ascending order
+        int[] excluded = new int[9];
+        int excludedCount = 0;
+        int safeMask = getNeighbourMask(safeIndex);
+        // The first four neighbours come before the safe tile
+        for (int mask = safeMask & 0b1111; mask != 0; mask &= mask - 1) {
+            excluded[excludedCount++] = getNeighbour(safeIndex, mask);
+        }
+        excluded[excludedCount++] = safeIndex;
+        for (int mask = safeMask & ~0b1111; mask != 0; mask &= mask - 1) {
+            excluded[excludedCount++] = getNeighbour(safeIndex, mask);
+        }
+
+        int candidates = size() - excludedCount;
+        for (int i = candidates - count; i < candidates; i++) {
+            int pick = random.nextInt(i + 1);
+            if (get(mines, skipExcluded(pick, excluded, excludedCount))) {
+                pick = i;
+            }
+            int index = skipExcluded(pick, excluded, excludedCount);
+            set(mines, index);
+            addToNeighbours(index);
+        }
+    }
+
+    /**
+     * Adds a bomb to the number of every tile around it.
+     */
+    private void addToNeighbours(int index) {
+        for (int mask = getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+            numbers[getNeighbour(index, mask)]++;
+        }
+    }
+
+    /**
+     * Turns the position of a tile among the tiles that may have a bomb into its index on the board.
+     * @param pick The position among the tiles that may have a bomb.
+     * @param excluded The indexes of the tiles that may not have a bomb, in ascending order.
+     * @param excludedCount The amount of tiles that may not have a bomb.
+     * @return The index of the tile on the board.
+     */
+    private static int skipExcluded(int pick, int[] excluded, int excludedCount) {
+        for (int i = 0; i < excludedCount && excluded[i] <= pick; i++) {
+            pick++;
+        }
+        return pick;
+    }
+
+    /**
+     * Reveals a tile. If the tile has no adjacent bombs, all connected tiles are revealed until tiles with a number are reached.
+     * Flagged tiles are never revealed and stop the reveal from spreading.
+     * @param index The index of the tile to reveal.
+     * @return The amount of tiles that were newly revealed, which can be read with getRevealedTile().
+     */
+    public int reveal(int index) {
+        if (get(revealed, index) || get(flags, index)) {
+            return 0;
+        }
+
+        int[] revealedTiles = getRevealedTiles();
+        set(revealed, index);
+        revealedTiles[0] = index;
+        return flood(revealedTiles, 1);
+    }
+
+    /**
+     * Reveals every tile around a tile that isn't revealed or flagged, used to chord a number.
+     * Tiles without adjacent bombs spread like reveal(), with one flood fill for all of them. Bombs are revealed too, but don't spread.
+     * @param index The index of the tile whose neighbours are revealed.
+     * @return The amount of tiles that were newly revealed, which can be read with getRevealedTile().
+     */
+    public int revealAround(int index) {
+        int[] revealedTiles = getRevealedTiles();
+        int revealedCount = 0;
+        for (int mask = getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+            int neighbour = getNeighbour(index, mask);
+            if (!get(revealed, neighbour) && !get(flags, neighbour)) {
+                set(revealed, neighbour);
+                revealedTiles[revealedCount++] = neighbour;
+            }
+        }
+        return flood(revealedTiles, revealedCount);
+    }
+
+    private int[] getRevealedTiles() {
+        int[] revealedTiles = REVEALED_TILES.get();
+        if (revealedTiles.length < size()) {
+            revealedTiles = new int[size()];
+            REVEALED_TILES.set(revealedTiles);
+        }
+        return revealedTiles;
+    }
+
+    /**
+     * Spreads a reveal from the revealed tiles in the queue, through every tile without adjacent bombs.
+     * @param revealedTiles The queue, which starts with tiles that were just revealed.
+     * @param revealedCount The amount of tiles in the queue.
+     * @return The amount of tiles in the queue once the reveal has stopped spreading.
+     */
+    private int flood(int[] revealedTiles, int revealedCount) {
+        // Every tile is added to the queue at most once, so the queue can never outgrow the board
+        int head = 0;
+        while (head < revealedCount) {
+            int tile = revealedTiles[head++];
+            if (numbers[tile] != 0 || get(mines, tile)) {
+                continue;
+            }
+
+            for (int mask = getNeighbourMask(tile); mask != 0; mask &= mask - 1) {
+                int neighbour = getNeighbour(tile, mask);
+                if (get(revealed, neighbour) || get(flags, neighbour)) {
+                    continue;
+                }
+
+                set(revealed, neighbour);
+                revealedTiles[revealedCount++] = neighbour;
+            }
+        }
+
+        return revealedCount;
+    }
+
+    /**
+     * Gets a tile that was revealed by the last call to reveal(), which has to have been on the same thread.
+     * @param i A number from 0 up to (but not including) the amount returned by reveal().
+     * @return The index of the revealed tile.
+     */
+    public int getRevealedTile(int i) {
+        return REVEALED_TILES.get()[i];
+    }
+
+    /**
+     * Reveals every tile on the board.
+     */
+    public void revealAll() {
+        Arrays.fill(revealed, -1L);
+    }
+
+    /**
+     * Hides every tile on the board again.
+     */
+    public void hideAll() {
+        Arrays.fill(revealed, 0L);
+    }
+
+    /**
+     * Copies the bombs, revealed tiles, flags and numbers of another board into this board, which must have the same size.
+     * @param other The board to copy.
+     */
+    public void copyFrom(Board other) {
+        checkNotShared();
+        System.arraycopy(other.mines, 0, mines, 0, mines.length);
+        System.arraycopy(other.revealed, 0, revealed, 0, revealed.length);
+        System.arraycopy(other.flags, 0, flags, 0, flags.length);
+        System.arraycopy(other.numbers, 0, numbers, 0, numbers.length);
+        seed = other.seed;
+    }
+
+    /**
+     * Writes the bombs, revealed tiles and flags of the board as bitsets.
+     * @param out Where the board is written to.
+     * @throws IOException If the board couldn't be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        for (long[] bits : new long[][] {mines, revealed, flags}) {
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * Reads a board written by write() into this board, which must have the same size.
+     * The numbers of each tile are counted again from the bombs.
+     * @param in Where the board is read from.
+     * @throws IOException If the board couldn't be read.
+     */
+    public void read(DataInput in) throws IOException {
+        checkNotShared();
+        for (long[] bits : new long[][] {mines, revealed, flags}) {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+            }
+        }
+
+        Arrays.fill(numbers, (byte) 0);
+        for (int index = 0; index < size(); index++) {
+            if (get(mines, index)) {
+                addToNeighbours(index);
+            }
+        }
+    }
+
+    private static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+}
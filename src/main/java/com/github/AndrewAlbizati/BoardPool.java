@@ -0,0 +1,123 @@
+package com.github.AndrewAlbizati;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a bounded amount of ready-made boards of one difficulty, so they don't have to be generated while a player waits.
+ * Boards are taken without blocking, and the pool is topped up again in the background after each one is taken.
+ */
+public class BoardPool {
+    private final Difficulty difficulty;
+    private final BlockingQueue<Board> boards;
+    private final Supplier<Board> generator;
+    private final Executor refiller;
+
+    // Only one refill runs at a time, it keeps going until the pool is full
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private final LongAdder refillTime = new LongAdder();
+
+    /**
+     * Creates the pool and starts filling it.
+     * @param difficulty The difficulty of the boards.
+     * @param capacity The most boards kept in the pool.
+     * @param generator Generates one board, called from the refiller.
+     * @param refiller Runs the refills, which should be a low priority thread.
+     */
+    public BoardPool(Difficulty difficulty, int capacity, Supplier<Board> generator, Executor refiller) {
+        this.difficulty = difficulty;
+        this.boards = new ArrayBlockingQueue<>(capacity);
+        this.generator = generator;
+        this.refiller = refiller;
+
+        refill();
+    }
+
+    /**
+     * Takes a board from the pool and starts topping the pool up again.
+     * @return A ready-made board, or null if the pool is empty and the board has to be generated by the caller.
+     */
+    public Board poll() {
+        Board board = boards.poll();
+        if (board == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        refill();
+        return board;
+    }
+
+    private void refill() {
+        if (boards.remainingCapacity() == 0 || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        refiller.execute(() -> {
+            try {
+                while (boards.remainingCapacity() > 0) {
+                    long start = System.nanoTime();
+                    Board board = generator.get();
+                    refillTime.add(System.nanoTime() - start);
+                    refilled.increment();
+                    boards.offer(board);
+                }
+            } finally {
+                refilling.set(false);
+            }
+
+            // A board could have been taken just before the flag was cleared
+            if (boards.remainingCapacity() > 0) {
+                refill();
+            }
+        });
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return The amount of boards ready in the pool.
+     */
+    public int getDepth() {
+        return boards.size();
+    }
+
+    /**
+     * @return The amount of times a board was taken from the pool.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The amount of times the pool was empty and a board had to be generated while the player waited.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The amount of boards added to the pool in the background.
+     */
+    public long getRefilled() {
+        return refilled.sum();
+    }
+
+    /**
+     * @return How long the background refills have spent generating boards, in nanoseconds.
+     */
+    public long getRefillTime() {
+        return refillTime.sum();
+    }
+}
@@ -0,0 +1,326 @@
+package com.github.AndrewAlbizati;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns a board into the emoji text shown in the game's embed.
+ * Each row is kept after it is rendered and only rows that were marked as changed are rendered again.
+ * Games on the same shared board can also share the text of rows that look the same, see SharedRows.
+ * Boards too large for one embed can be rendered through a window, so only the tiles in the window are rendered.
+ */
+public class BoardRenderer {
+    // Discord doesn't allow embed descriptions longer than this
+    public static final int MAX_DESCRIPTION_LENGTH = 4096;
+
+    // Unicode emojis are used instead of shortcodes to keep larger boards within Discord's embed limits
+    private static final String HIDDEN = "\u2B1C";
+    private static final String EMPTY = "\u2B1B";
+    private static final String FLAG = "\uD83D\uDEA9";
+    private static final String BOMB = "\uD83C\uDD71\uFE0F";
+    private static final String[] NUMBERS = new String[10];
+    private static final String[] LETTERS = new String[26];
+    // A zero width space keeps two letters from being shown as a country's flag
+    private static final String SEPARATOR = "\u200B";
+
+    static {
+        for (int i = 0; i < NUMBERS.length; i++) {
+            NUMBERS[i] = i + "\uFE0F\u20E3";
+        }
+        for (int i = 0; i < LETTERS.length; i++) {
+            LETTERS[i] = new String(Character.toChars(0x1F1E6 + i));
+        }
+    }
+
+    // Column headers only depend on the amount of columns, the last digit of the first column, and the width of the row labels
+    private static final Map<Integer, String> HEADERS = new ConcurrentHashMap<>();
+
+    private final Board board;
+    private final SharedRows sharedRows;
+
+    // Row labels are as many letters wide as the label of the last row
+    private final int labelWidth;
+    private String header;
+
+    // The tiles that are rendered, which is the whole board unless a smaller window is given
+    private int windowRow;
+    private int windowCol;
+    private final int windowRows;
+    private final int windowCols;
+
+    private final String[] renderedRows;
+    private final boolean[] dirtyRows;
+    private boolean dirty = true;
+
+    // Only kept when rows aren't shared, shared renderers keep as little as possible per game
+    private final StringBuilder rowBuffer;
+    private final StringBuilder output;
+    private String rendered;
+
+    public BoardRenderer(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * @param board The board to render.
+     * @param sharedRows Rows shared with other games on the same bombs, or null to keep rows to this game.
+     *                   Rows are only shared on boards with up to 64 columns.
+     */
+    public BoardRenderer(Board board, SharedRows sharedRows) {
+        this(board, sharedRows, board.getRows(), board.getColumns());
+    }
+
+    /**
+     * Renders a window of the board, which starts in the top left corner and is moved with setWindow().
+     * @param board The board to render.
+     * @param windowRows The amount of rows in the window, at most the rows of the board.
+     * @param windowCols The amount of columns in the window, at most the columns of the board.
+     */
+    public BoardRenderer(Board board, int windowRows, int windowCols) {
+        this(board, null, Math.min(windowRows, board.getRows()), Math.min(windowCols, board.getColumns()));
+    }
+
+    private BoardRenderer(Board board, SharedRows sharedRows, int windowRows, int windowCols) {
+        this.board = board;
+        // Shared rows are looked up by the whole row, so they can't be used with a window
+        boolean whole = windowRows == board.getRows() && windowCols == board.getColumns();
+        this.sharedRows = board.getColumns() <= 64 && whole ? sharedRows : null;
+        this.windowRows = windowRows;
+        this.windowCols = windowCols;
+
+        renderedRows = new String[windowRows];
+        dirtyRows = new boolean[windowRows];
+        markAllChanged();
+
+        rowBuffer = this.sharedRows == null ? new StringBuilder() : null;
+        output = this.sharedRows == null ? new StringBuilder() : null;
+
+        labelWidth = Position.getRowNameLength(board.getRows() - 1);
+        header = getHeader(windowCol, windowCols, labelWidth);
+    }
+
+    private static String getHeader(int firstCol, int cols, int labelWidth) {
+        return HEADERS.computeIfAbsent(cols << 6 | (firstCol + 1) % 10 << 2 | labelWidth, key -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append(EMPTY);
+            for (int i = 1; i < labelWidth; i++) {
+                sb.append(SEPARATOR);
+                sb.append(EMPTY);
+            }
+            sb.append(" ");
+            // Columns past the ninth are numbered by their last digit
+            for (int i = firstCol + 1; i <= firstCol + cols; i++) {
+                sb.append(NUMBERS[i % 10]);
+                sb.append(" ");
+            }
+            sb.append("\n");
+            return sb.toString();
+        });
+    }
+
+    /**
+     * Gets the longest the text of a board can get, which is when every tile shows a number or a bomb.
+     * Used to decide once per game if its board is shown as text, so it can't grow too long partway through.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @return The most characters the board can take.
+     */
+    public static int getMaxLength(int rows, int cols) {
+        int labelWidth = Position.getRowNameLength(rows - 1);
+        // Every tile is at most 3 characters and a space, and the letters of labels are 2 characters with a separator between them
+        int header = labelWidth * 2 - 1 + 2 + cols * 4;
+        int row = labelWidth * 3 - 1 + 2 + cols * 4;
+        return header + rows * row;
+    }
+
+    /**
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @return If the text of the board always fits in an embed's description.
+     */
+    public static boolean fitsInEmbed(int rows, int cols) {
+        return getMaxLength(rows, cols) <= MAX_DESCRIPTION_LENGTH;
+    }
+
+    /**
+     * Moves the window, and renders every row again on the next render if it moved.
+     * @param row The top row of the window, so that the window stays within the board.
+     * @param col The left column of the window, so that the window stays within the board.
+     */
+    public void setWindow(int row, int col) {
+        if (row == windowRow && col == windowCol) {
+            return;
+        }
+
+        windowRow = row;
+        windowCol = col;
+        header = getHeader(windowCol, windowCols, labelWidth);
+        markAllChanged();
+    }
+
+    public int getWindowRow() {
+        return windowRow;
+    }
+
+    public int getWindowColumn() {
+        return windowCol;
+    }
+
+    public int getWindowRows() {
+        return windowRows;
+    }
+
+    public int getWindowColumns() {
+        return windowCols;
+    }
+
+    /**
+     * Marks the row of a tile as changed so that it will be rendered again.
+     * @param index The index of the tile that changed.
+     */
+    public void markChanged(int index) {
+        int row = board.getRow(index) - windowRow;
+        int col = board.getColumn(index) - windowCol;
+        // Tiles outside the window aren't rendered
+        if (row < 0 || row >= windowRows || col < 0 || col >= windowCols) {
+            return;
+        }
+
+        dirtyRows[row] = true;
+        dirty = true;
+    }
+
+    /**
+     * Marks every row as changed, used when the entire board is revealed.
+     */
+    public void markAllChanged() {
+        Arrays.fill(dirtyRows, true);
+        dirty = true;
+    }
+
+    /**
+     * Renders the board, reusing the text of every row that hasn't changed since the last render.
+     * @return The board, or its window, as emojis, with row letters and column numbers.
+     */
+    public String render() {
+        if (!dirty) {
+            return rendered;
+        }
+
+        for (int r = 0; r < renderedRows.length; r++) {
+            if (dirtyRows[r]) {
+                renderedRows[r] = sharedRows == null ? renderRow(windowRow + r, rowBuffer) : sharedRows.get(this, r);
+                dirtyRows[r] = false;
+            }
+        }
+
+        if (sharedRows != null) {
+            // The full text isn't kept, it is only a few appends to make again
+            return join(new StringBuilder());
+        }
+
+        output.setLength(0);
+        rendered = join(output);
+        dirty = false;
+        return rendered;
+    }
+
+    private String join(StringBuilder sb) {
+        sb.append(header);
+        for (String row : renderedRows) {
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    private String renderRow(int row, StringBuilder buffer) {
+        buffer.setLength(0);
+        appendLabel(buffer, row);
+        buffer.append(" ");
+        int index = board.getIndex(row, windowCol);
+        for (int c = 0; c < windowCols; c++, index++) {
+            buffer.append(getTileText(index));
+            buffer.append(" ");
+        }
+        buffer.append("\n");
+        return buffer.toString();
+    }
+
+    /**
+     * Adds the letters of a row, padded on the left to the width of the other labels.
+     */
+    private void appendLabel(StringBuilder buffer, int row) {
+        int length = Position.getRowNameLength(row);
+        for (int i = length; i < labelWidth; i++) {
+            buffer.append(EMPTY);
+            buffer.append(SEPARATOR);
+        }
+
+        // Letters from the first, the same as Position.getRowName()
+        int first = length == 1 ? 0 : length == 2 ? 26 : 26 + 26 * 26;
+        int place = length == 1 ? 1 : length == 2 ? 26 : 26 * 26;
+        for (int n = row - first; place > 0; place /= 26) {
+            buffer.append(LETTERS[n / place % 26]);
+            if (place > 1) {
+                buffer.append(SEPARATOR);
+            }
+        }
+    }
+
+    /**
+     * Gets the emoji that represents a tile in its current state.
+     * @param index The index of the tile.
+     * @return The emoji of the tile.
+     */
+    private String getTileText(int index) {
+        if (board.isRevealed(index)) {
+            if (board.hasMine(index)) {
+                return BOMB;
+            }
+
+            int number = board.getNumber(index);
+            return number == 0 ? EMPTY : NUMBERS[number];
+        }
+
+        return board.hasFlag(index) ? FLAG : HIDDEN;
+    }
+
+    /**
+     * The text of rows rendered by games that share the same bombs, such as a daily challenge.
+     * A row is looked up by which of its tiles are revealed and flagged, so every game where a row looks the same
+     * gets the same text instead of its own copy.
+     */
+    public static class SharedRows {
+        // The cache is cleared once it holds this many rows, so it can't grow without limit
+        private static final int MAX_ROWS = 100_000;
+
+        private final ConcurrentHashMap<RowState, String> rows = new ConcurrentHashMap<>();
+
+        private String get(BoardRenderer renderer, int row) {
+            Board board = renderer.board;
+            long revealedBits = 0;
+            long flagBits = 0;
+            int index = board.getIndex(row, 0);
+            for (int c = 0; c < board.getColumns(); c++, index++) {
+                if (board.isRevealed(index)) {
+                    revealedBits |= 1L << c;
+                } else if (board.hasFlag(index)) {
+                    flagBits |= 1L << c;
+                }
+            }
+
+            if (rows.size() >= MAX_ROWS) {
+                rows.clear();
+            }
+            return rows.computeIfAbsent(new RowState(row, revealedBits, flagBits), state -> renderer.renderRow(row, new StringBuilder()));
+        }
+
+        public int size() {
+            return rows.size();
+        }
+
+        private record RowState(int row, long revealed, long flags) {
+        }
+    }
+}
@@ -3,27 +3,214 @@ package com.github.AndrewAlbizati;
 import org.javacord.api.DiscordApi;
 import org.javacord.api.DiscordApiBuilder;
 import org.javacord.api.entity.activity.ActivityType;
-import org.javacord.api.entity.message.Message;
 import org.javacord.api.entity.message.embed.EmbedBuilder;
+import org.javacord.api.entity.server.Server;
+import org.javacord.api.entity.user.User;
 import org.javacord.api.entity.user.UserStatus;
 import org.javacord.api.interaction.SlashCommand;
+import org.javacord.api.interaction.SlashCommandBuilder;
 import org.javacord.api.interaction.SlashCommandInteraction;
 import org.javacord.api.interaction.SlashCommandOption;
+import org.javacord.api.interaction.SlashCommandOptionChoice;
 import org.javacord.api.interaction.SlashCommandOptionType;
 import org.javacord.api.interaction.callback.InteractionCallbackDataFlag;
+import org.javacord.api.interaction.callback.InteractionOriginalResponseUpdater;
+import org.javacord.api.util.logging.ExceptionLogger;
 
 import java.awt.*;
-import java.util.HashMap;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class Bot {
+    private static final String NOT_PLAYING = "You are not currently playing Minesweeper. Type /play to start a game.";
+    // The most rows and columns of a custom board, boards larger than Game.MAX_SHOWN_SIZE are shown a window at a time
+    private static final int MAX_BOARD_SIZE = 1000;
+
     private final String token;
     private DiscordApi api;
-    private final HashMap<Long, Game> games;
+    private final GameRegistry games;
+    private final EditScheduler edits;
+    private final GameStore store;
+    private final GameHistory history;
+    private final NoGuessGenerator generator;
+    private final DailyChallenge daily;
+    private final Metrics metrics;
+    // Commands by name, in the order they are added to Discord
+    private final Map<String, Command> commands = new LinkedHashMap<>();
+
+    public Bot(String token, GameRegistry games, GameStore store, GameHistory history, NoGuessGenerator generator, Metrics metrics) {
+        // Merge edits made within 250ms, and send at most one edit per second in each channel
+        this(token, games, store, history, generator, metrics, new EditScheduler(250, 1000));
+    }
 
-    public Bot(String token) {
+    /**
+     * @param edits Sends the edits of game messages.
+     */
+    Bot(String token, GameRegistry games, GameStore store, GameHistory history, NoGuessGenerator generator, Metrics metrics, EditScheduler edits) {
         this.token = token;
-        games = new HashMap<>();
+        this.games = games;
+        this.store = store;
+        this.history = history;
+        this.generator = generator;
+        this.metrics = metrics;
+        daily = new DailyChallenge(generator);
+        this.edits = edits;
+
+        addCommands();
+        addMetrics();
+    }
+
+    /**
+     * Handles one slash command.
+     */
+    @FunctionalInterface
+    private interface CommandHandler {
+        /**
+         * @param interaction The interaction of the command.
+         * @param timing The metrics of the command.
+         * @param received When the command was received, from System.nanoTime().
+         */
+        void handle(SlashCommandInteraction interaction, CommandMetrics timing, long received);
+    }
+
+    /**
+     * A slash command, with how it is shown in Discord and the method that handles it.
+     */
+    private record Command(SlashCommandBuilder definition, CommandHandler handler, CommandMetrics timing) {
+    }
+
+    /**
+     * The time spent in each part of a command: reading its options, playing the move, rendering the board, and editing the message.
+     */
+    private record CommandMetrics(Metrics.Counter calls, Metrics.Histogram parse, Metrics.Histogram game,
+                                  Metrics.Histogram render, Metrics.Histogram edit) {
+    }
+
+    /**
+     * Adds every slash command to the table the listener looks commands up in.
+     */
+    private void addCommands() {
+        addCommand("play", "Starts a game of Minesweeper",
+                List.of(
+                        SlashCommandOption.createWithChoices(SlashCommandOptionType.STRING, "difficulty", "Size of the board", false,
+                                List.of(
+                                        SlashCommandOptionChoice.create("Beginner (9x9, 10 bombs)", "beginner"),
+                                        SlashCommandOptionChoice.create("Intermediate (16x16, 40 bombs)", "intermediate"),
+                                        SlashCommandOptionChoice.create("Expert (16x30, 99 bombs)", "expert")
+                                )),
+                        SlashCommandOption.createLongOption("rows", "Custom amount of rows", false, 1, MAX_BOARD_SIZE),
+                        SlashCommandOption.createLongOption("columns", "Custom amount of columns", false, 1, MAX_BOARD_SIZE),
+                        SlashCommandOption.createLongOption("mines", "Custom amount of bombs", false, 0, MAX_BOARD_SIZE * MAX_BOARD_SIZE),
+                        SlashCommandOption.create(SlashCommandOptionType.BOOLEAN, "noguess", "Only use a board that can be solved without guessing", false),
+                        SlashCommandOption.createLongOption("seed", "Seed of the board, to replay a game", false, 0, Game.MAX_SEED)
+                ), this::play);
+        addCommand("flag", "Place a flag in your game",
+                List.of(
+                        SlashCommandOption.create(SlashCommandOptionType.STRING, "POSITION", "e.g. A5 or E6", true)
+                ), (interaction, timing, received) -> move(interaction, timing, received, true));
+        addCommand("click", "Click a square in your game",
+                List.of(
+                        SlashCommandOption.create(SlashCommandOptionType.STRING, "POSITION", "e.g. A5 or E6", true)
+                ), (interaction, timing, received) -> move(interaction, timing, received, false));
+        addCommand("move", "Make many clicks and flags at once",
+                List.of(
+                        SlashCommandOption.create(SlashCommandOptionType.STRING, "MOVES", "e.g. A1 B2 f:C3, where f: places a flag", true)
+                ), this::moves);
+        addCommand("view", "Moves the part of a large board that is shown",
+                List.of(
+                        SlashCommandOption.create(SlashCommandOptionType.STRING, "position", "Tile to show in the middle, e.g. AB120", false),
+                        SlashCommandOption.createWithChoices(SlashCommandOptionType.STRING, "direction", "Move half a view in a direction", false,
+                                List.of(
+                                        SlashCommandOptionChoice.create("Up", "up"),
+                                        SlashCommandOptionChoice.create("Down", "down"),
+                                        SlashCommandOptionChoice.create("Left", "left"),
+                                        SlashCommandOptionChoice.create("Right", "right")
+                                )),
+                        SlashCommandOption.create(SlashCommandOptionType.BOOLEAN, "follow", "Move the view to each tile you play", false)
+                ), this::view);
+        addCommand("daily", "Starts today's daily challenge, the same board for everyone", List.of(), this::daily);
+        addCommand("hint", "Shows a tile that is safe to click in your game", List.of(), this::hint);
+        addCommand("stats", "Shows the wins, losses, and best times of a player",
+                List.of(
+                        SlashCommandOption.createUserOption("player", "Player to show, yourself by default", false)
+                ), this::stats);
+        addCommand("leaderboard", "Shows the fastest wins in this server",
+                List.of(
+                        SlashCommandOption.createWithChoices(SlashCommandOptionType.STRING, "difficulty", "Difficulty of the games", false,
+                                List.of(
+                                        SlashCommandOptionChoice.create("Beginner", "beginner"),
+                                        SlashCommandOptionChoice.create("Intermediate", "intermediate"),
+                                        SlashCommandOptionChoice.create("Expert", "expert"),
+                                        SlashCommandOptionChoice.create("Today's daily challenge", "daily")
+                                ))
+                ), this::leaderboard);
+    }
+
+    /**
+     * Adds a slash command and creates its metrics.
+     * @param name The name of the command, which players type after the slash.
+     * @param description The description shown in Discord.
+     * @param options The options of the command.
+     * @param handler Handles the command when it is used.
+     */
+    private void addCommand(String name, String description, List<SlashCommandOption> options, CommandHandler handler) {
+        String labels = "command=\"" + name + "\"";
+        String help = "Time spent in each part of a command, in seconds";
+        CommandMetrics timing = new CommandMetrics(
+                metrics.counter("minesweeper_commands_total", "Slash commands received", labels),
+                metrics.histogram("minesweeper_command_seconds", help, labels + ",phase=\"parse\""),
+                metrics.histogram("minesweeper_command_seconds", help, labels + ",phase=\"game\""),
+                metrics.histogram("minesweeper_command_seconds", help, labels + ",phase=\"render\""),
+                metrics.histogram("minesweeper_command_seconds", help, labels + ",phase=\"edit\""));
+
+        commands.put(name, new Command(SlashCommand.with(name, description, options), handler, timing));
+    }
+
+    /**
+     * Creates the gauges read from the games, message edits, no-guess boards, and JVM.
+     */
+    private void addMetrics() {
+        metrics.gauge("minesweeper_live_games", "Games being played", "", games::getLiveGames);
+        metrics.counter("minesweeper_completed_games_total", "Games won or lost", "", games::getCompletedGames);
+        metrics.counter("minesweeper_evicted_games_total", "Games removed after going idle", "", games::getEvictedGames);
+        metrics.counter("minesweeper_edits_requested_total", "Message edits requested", "", edits::getEditsRequested);
+        metrics.counter("minesweeper_edits_sent_total", "Message edits sent to Discord after merging", "", edits::getEditsSent);
+
+        metrics.counter("minesweeper_noguess_boards_tried_total", "Random boards checked for needing a guess", "", generator::getBoardsTried);
+        metrics.counter("minesweeper_noguess_boards_rejected_total", "Random boards thrown away and tried again because they needed a guess", "", generator::getBoardsRejected);
+        for (Difficulty difficulty : Difficulty.values()) {
+            BoardPool pool = generator.getPool(difficulty);
+            if (pool == null) {
+                continue;
+            }
+            String labels = "difficulty=\"" + difficulty.name().toLowerCase() + "\"";
+            metrics.gauge("minesweeper_pool_boards", "No-guess boards ready in the pool", labels, pool::getDepth);
+            metrics.counter("minesweeper_pool_hits_total", "No-guess boards taken from the pool", labels, pool::getHits);
+            metrics.counter("minesweeper_pool_misses_total", "No-guess boards generated while the player waited", labels, pool::getMisses);
+            metrics.counter("minesweeper_pool_refilled_total", "No-guess boards added to the pool", labels, pool::getRefilled);
+            metrics.counter("minesweeper_pool_refill_seconds_total", "Time spent refilling the pool", labels, () -> pool.getRefillTime() / 1e9);
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        metrics.gauge("jvm_memory_used_bytes", "Memory used by the JVM", "area=\"heap\"", () -> memory.getHeapMemoryUsage().getUsed());
+        metrics.gauge("jvm_memory_used_bytes", "Memory used by the JVM", "area=\"nonheap\"", () -> memory.getNonHeapMemoryUsage().getUsed());
+        metrics.gauge("jvm_memory_committed_bytes", "Memory reserved by the JVM", "area=\"heap\"", () -> memory.getHeapMemoryUsage().getCommitted());
+        metrics.gauge("jvm_memory_committed_bytes", "Memory reserved by the JVM", "area=\"nonheap\"", () -> memory.getNonHeapMemoryUsage().getCommitted());
+        metrics.gauge("jvm_memory_max_bytes", "Most heap memory the JVM can use", "area=\"heap\"", () -> memory.getHeapMemoryUsage().getMax());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String labels = "gc=\"" + collector.getName() + "\"";
+            metrics.counter("jvm_gc_collections_total", "Garbage collections", labels, collector::getCollectionCount);
+            metrics.counter("jvm_gc_collection_seconds_total", "Time spent in garbage collection", labels, () -> collector.getCollectionTime() / 1000.0);
+        }
     }
 
     /**
@@ -40,195 +227,659 @@ public class Bot {
         api.updateStatus(UserStatus.ONLINE);
         api.updateActivity(ActivityType.PLAYING, "Type /play to start a game");
 
-        SlashCommand.with("play", "Starts a game of Minesweeper").createGlobal(api).join();
-        SlashCommand.with("flag", "Place a flag in your game",
-                List.of(
-                        SlashCommandOption.create(SlashCommandOptionType.STRING, "POSITION", "e.g. A5 or E6", true)
-                )).createGlobal(api).join();
-        SlashCommand.with("click", "Click a square in your game",
-                List.of(
-                        SlashCommandOption.create(SlashCommandOptionType.STRING, "POSITION", "e.g. A5 or E6", true)
-                )).createGlobal(api).join();
-
-        api.addSlashCommandCreateListener(event -> {
-            SlashCommandInteraction interaction = event.getSlashCommandInteraction();
-            switch (event.getSlashCommandInteraction().getCommandName().toLowerCase()) {
-                case "play" -> {
-                    if (games.containsKey(interaction.getUser().getId())) {
-                        interaction.createImmediateResponder()
-                                .setContent("Please finish your previous game before starting a new one.")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
-                    
-                    EmbedBuilder eb = new EmbedBuilder();
+        loadGames();
+        // Start generating today's and tomorrow's daily challenges
+        daily.getToday();
+
+        for (Command command : commands.values()) {
+            command.definition().createGlobal(api).join();
+        }
+
+        api.addSlashCommandCreateListener(event -> handle(event.getSlashCommandInteraction(), System.nanoTime()));
+    }
+
+    /**
+     * Looks up a slash command in the command table and handles it.
+     * @param interaction The interaction of the command.
+     * @param received When the command was received, from System.nanoTime().
+     */
+    void handle(SlashCommandInteraction interaction, long received) {
+        Command command = commands.get(interaction.getCommandName().toLowerCase());
+        if (command == null) {
+            return;
+        }
 
-                    Game game = new Game();
-                    games.put(interaction.getUser().getId(), game);
-                    
+        command.timing().calls().increment();
+        command.handler().handle(interaction, command.timing(), received);
+    }
+
+    /**
+     * Starts a game, on a random, seeded, or no-guess board.
+     */
+    private void play(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        Difficulty difficulty = Difficulty.valueOf(interaction.getOptionStringValueByName("difficulty").orElse("beginner").toUpperCase());
+        int rows = interaction.getOptionLongValueByName("rows").orElse((long) difficulty.getRows()).intValue();
+        int cols = interaction.getOptionLongValueByName("columns").orElse((long) difficulty.getColumns()).intValue();
+        int mines = interaction.getOptionLongValueByName("mines").orElse((long) difficulty.getMines()).intValue();
+        boolean noGuess = interaction.getOptionBooleanValueByName("noguess").orElse(false);
+        Optional<Long> seed = interaction.getOptionLongValueByName("seed");
+
+        if (noGuess && rows * cols > NoGuessGenerator.MAX_TILES) {
+            respondPrivately(interaction, "No-guess boards can have at most " + NoGuessGenerator.MAX_TILES + " tiles, e.g. 100x100.");
+            return;
+        }
+
+        Game game;
+        try {
+            game = seed.isPresent() ? new Game(rows, cols, mines, seed.get()) : new Game(rows, cols, mines);
+        } catch (IllegalArgumentException e) {
+            respondPrivately(interaction, e.getMessage() + ".");
+            return;
+        }
+
+        try {
+            games.create(interaction.getUser().getId(), game);
+        } catch (IllegalStateException e) {
+            respondPrivately(interaction, e.getMessage());
+            return;
+        }
+
+        timing.parse().observeSince(received);
+
+        if (noGuess) {
+            startNoGuessGame(interaction, game, seed.isPresent(), timing);
+            return;
+        }
+
+        long renderStart = System.nanoTime();
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setTitle("Minesweeper");
+        eb.setColor(Color.GRAY);
+        eb.addField("Bombs left", String.valueOf(game.getMinesLeft()));
+        eb.setFooter(getFooter(interaction, game), interaction.getUser().getAvatar());
+        setBoard(eb, game);
+        timing.render().observeSince(renderStart);
+
+        long editStart = System.nanoTime();
+        interaction.createImmediateResponder()
+                .addEmbed(eb)
+                .respond()
+                .thenCompose(InteractionOriginalResponseUpdater::update)
+                .whenComplete((message, e) -> timing.edit().observeSince(editStart))
+                .thenAccept(message -> game.getMailbox().execute(() -> {
+                    game.setMessage(message);
                     game.start();
+                    store.save(interaction.getUser().getId(), game);
+                }))
+                .exceptionally(ExceptionLogger.get());
+    }
 
-                    eb.setTitle("Minesweeper");
-                    eb.setColor(Color.GRAY);
-                    eb.setFooter(interaction.getUser().getDiscriminatedName(), interaction.getUser().getAvatar());
-                    eb.setDescription(game.toString());
+    /**
+     * Starts the player's daily challenge, which can only be played once a day.
+     * Today's board is usually generated ahead of time. If it isn't ready yet, Discord is told the command was received
+     * and the challenge starts once the board is.
+     */
+    private void daily(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        CompletableFuture<DailyChallenge.Day> today = daily.getToday();
+        if (today.isDone() && !today.isCompletedExceptionally()) {
+            startDaily(interaction, today.join(), null, timing, received);
+            return;
+        }
+
+        CompletableFuture<InteractionOriginalResponseUpdater> acknowledged = interaction.respondLater();
+        today.thenAccept(day -> startDaily(interaction, day, acknowledged, timing, received))
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    acknowledged.thenCompose(updater -> updater.setContent("Today's challenge couldn't be made. Please try again later.").update())
+                            .exceptionally(ExceptionLogger.get());
+                    return null;
+                });
+    }
 
-                    Message message = interaction.createImmediateResponder()
-                            .addEmbed(eb)
-                            .respond().join().update().join();
+    /**
+     * Starts a player's game of a day's challenge.
+     * @param acknowledged The deferred reply to fill in, or null to reply right away.
+     */
+    private void startDaily(SlashCommandInteraction interaction, DailyChallenge.Day today,
+                            CompletableFuture<InteractionOriginalResponseUpdater> acknowledged, CommandMetrics timing, long received) {
+        long userId = interaction.getUser().getId();
+        if (today.hasStarted(userId) || history.hasPlayedDaily(userId, today.getDay())) {
+            reply(interaction, acknowledged, "You have already played today's challenge. A new one starts at midnight UTC.");
+            return;
+        }
 
+        Game game = today.createGame();
+        try {
+            games.create(userId, game);
+        } catch (IllegalStateException e) {
+            reply(interaction, acknowledged, e.getMessage());
+            return;
+        }
+        today.markStarted(userId);
+        timing.game().observeSince(received);
+
+        long renderStart = System.nanoTime();
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setTitle(getTitle(game));
+        eb.setColor(Color.GRAY);
+        eb.addField("Bombs left", String.valueOf(game.getMinesLeft()));
+        eb.setFooter(getFooter(interaction, game), interaction.getUser().getAvatar());
+        setBoard(eb, game);
+        timing.render().observeSince(renderStart);
+
+        long editStart = System.nanoTime();
+        CompletableFuture<InteractionOriginalResponseUpdater> responded = acknowledged == null
+                ? interaction.createImmediateResponder().addEmbed(eb).respond()
+                : acknowledged.thenApply(updater -> updater.addEmbed(eb));
+        responded
+                .thenCompose(InteractionOriginalResponseUpdater::update)
+                .whenComplete((message, e) -> timing.edit().observeSince(editStart))
+                .thenAccept(message -> game.getMailbox().execute(() -> {
                     game.setMessage(message);
                     game.start();
-                }
+                    store.save(userId, game);
+                }))
+                .exceptionally(ExceptionLogger.get());
+    }
 
-                case "flag" -> {
-                    if (!games.containsKey(interaction.getUser().getId())) {
-                        interaction.createImmediateResponder()
-                                .setContent("You are not currently playing Minesweeper. Type /play to start a game.")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+    /**
+     * Replies to a command with a message only the player can see, or fills in its deferred reply if it has one.
+     * Deferred replies were already shown to everyone, so they can't be made private.
+     * @param acknowledged The deferred reply, or null if the command hasn't been replied to.
+     */
+    private static void reply(SlashCommandInteraction interaction, CompletableFuture<InteractionOriginalResponseUpdater> acknowledged, String content) {
+        if (acknowledged == null) {
+            respondPrivately(interaction, content);
+            return;
+        }
+        acknowledged.thenCompose(updater -> updater.setContent(content).update()).exceptionally(ExceptionLogger.get());
+    }
 
-                    String position = interaction.getOptionStringValueByIndex(0).orElse("");
-                    if (position.length() != 2) {
-                        interaction.createImmediateResponder()
-                                .setContent("Invalid position. Positions are formatted as A5 or B7")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+    /**
+     * Reads the position of /flag or /click and plays it as a single move.
+     * @param flag If the tile is flagged instead of clicked.
+     */
+    private void move(SlashCommandInteraction interaction, CommandMetrics timing, long received, boolean flag) {
+        int position = Position.parse(interaction.getOptionStringValueByIndex(0).orElse(""));
+        if (position == Position.INVALID) {
+            respondPrivately(interaction, "Invalid position. Positions are formatted as A5 or B7");
+            return;
+        }
 
-                    if (!Character.isLetter(position.charAt(0)) || !Character.isDigit(position.charAt(1))) {
-                        interaction.createImmediateResponder()
-                                .setContent("Invalid position. Positions are formatted as A5 or B7")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+        move(interaction, timing, received, new int[] {flag ? Moves.flag(position) : Moves.click(position)});
+    }
 
-                    char pos1 = Character.toLowerCase(position.charAt(0));
-                    int pos2 = Integer.parseInt(position.substring(1, 2));
-
-                    int row = switch(pos1) {
-                        case 'a' -> 0;
-                        case 'b' -> 1;
-                        case 'c' -> 2;
-                        case 'd' -> 3;
-                        case 'e' -> 4;
-                        case 'f' -> 5;
-                        case 'g' -> 6;
-                        case 'h' -> 7;
-                        case 'i' -> 8;
-                        default -> -1;
-                    };
-                    int col = pos2 - 1;
-                    if (col < 0 || col > 9) {
-                        interaction.createImmediateResponder()
-                                .setContent("Invalid position. Positions are formatted as A5 or B7")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+    /**
+     * Reads the moves of /move and plays them all at once.
+     */
+    private void moves(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        int[] moves;
+        try {
+            moves = Moves.parse(interaction.getOptionStringValueByIndex(0).orElse(""));
+        } catch (IllegalArgumentException e) {
+            respondPrivately(interaction, e.getMessage() + ".");
+            return;
+        }
+
+        move(interaction, timing, received, moves);
+    }
+
+    /**
+     * Plays moves in order, shared by /flag, /click, and /move.
+     * The moves are checked before they are played, and they are played in the game's mailbox.
+     * Moves after the game ends are skipped, and the message is rendered and edited once after the last move.
+     * @param moves The moves, read by Moves.
+     */
+    private void move(SlashCommandInteraction interaction, CommandMetrics timing, long received, int[] moves) {
+        long userId = interaction.getUser().getId();
+        Game game = games.get(userId);
+        if (game == null) {
+            respondPrivately(interaction, NOT_PLAYING);
+            return;
+        }
+
+        for (int move : moves) {
+            int position = Moves.getPosition(move);
+            if (Position.getRow(position) >= game.getRows() || Position.getColumn(position) >= game.getColumns()) {
+                respondPrivately(interaction, "Invalid position. Your board goes from A1 to " + Position.format(game.getRows() - 1, game.getColumns() - 1));
+                return;
+            }
+        }
+        timing.parse().observeSince(received);
+
+        // Let Discord know the command was received, the reply is filled in once the moves are done
+        CompletableFuture<InteractionOriginalResponseUpdater> acknowledged = interaction.respondLater(true);
+
+        game.getMailbox().submit(() -> {
+            // Game finished while this command was waiting for its turn
+            if (game.hasEnded() || game.hasWin()) {
+                return CompletableFuture.completedFuture(NOT_PLAYING);
+            }
 
-                    
-                    Game game = games.get(interaction.getUser().getId());
+            if (game.getMessage() == null) {
+                return CompletableFuture.completedFuture("Your game is still being set up. Please try again.");
+            }
+
+            long gameStart = System.nanoTime();
+            int played = 0;
+            while (played < moves.length && !game.hasEnded() && !game.hasWin()) {
+                int position = Moves.getPosition(moves[played]);
+                int row = Position.getRow(position);
+                int col = Position.getColumn(position);
+
+                if (Moves.isFlag(moves[played])) {
                     game.addFlag(row, col);
-                    game.refreshBoard();
+                    store.logMove(userId, game, GameStore.FLAG, row, col);
+                } else if (game.getBoard().isRevealed(game.getBoard().getIndex(row, col))) {
+                    // Clicking a number that is already revealed chords it
+                    game.chord(row, col);
+                    store.logMove(userId, game, GameStore.CHORD, row, col);
+                } else {
+                    boolean started = game.hasStarted();
+                    game.onClick(row, col);
+                    // The first click places the bombs, which can't be replayed from the move alone
+                    if (started) {
+                        store.logMove(userId, game, GameStore.CLICK, row, col);
+                    } else {
+                        store.save(userId, game);
+                    }
+                }
+                played++;
+            }
 
-                    EmbedBuilder eb = new EmbedBuilder();
-                    eb.setTitle("Minesweeper");
-                    eb.setDescription(game.toString());
-                    eb.setFooter(interaction.getUser().getDiscriminatedName(), interaction.getUser().getAvatar());
+            EmbedBuilder builder = new EmbedBuilder();
+            if (game.hasEnded()) {
+                games.complete(userId, game);
+                recordResult(interaction, game, false);
+                builder.addField("You lose!", "Time: " + formatTime(System.currentTimeMillis() - game.getStartTime()));
+                builder.setColor(Color.RED);
+            } else if (game.hasWin()) {
+                games.complete(userId, game);
+                recordResult(interaction, game, true);
+                builder.addField("You win!", "Time: " + formatTime(System.currentTimeMillis() - game.getStartTime()));
+                builder.setColor(Color.GREEN);
+            } else {
+                builder.addField("Bombs left", String.valueOf(game.getMinesLeft()));
+                builder.setColor(Color.GRAY);
+            }
+            timing.game().observeSince(gameStart);
+
+            long renderStart = System.nanoTime();
+            builder.setTitle(getTitle(game));
+            setBoard(builder, game);
+            builder.setFooter(getFooter(interaction, game), interaction.getUser().getAvatar());
+            timing.render().observeSince(renderStart);
+
+            String reply = played == moves.length ? ":thumbsup:" : "The game ended after " + played + " of your " + moves.length + " moves.";
+            // Edits are queued from the mailbox so the latest embed sent always matches the latest move
+            return timeEdit(timing, edits.edit(game.getMessage(), builder), reply);
+        })
+                .thenCompose(reply -> reply)
+                .thenCompose(reply -> acknowledged.thenCompose(updater -> updater.setContent(reply).update()))
+                .exceptionally(ExceptionLogger.get());
+    }
+
+    /**
+     * Moves the window shown of a board too large to show at once, or turns following the player's moves on or off.
+     * Moving the window by hand stops it following the player's moves, unless follow is also given.
+     */
+    private void view(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        long userId = interaction.getUser().getId();
+        Game game = games.get(userId);
+        if (game == null) {
+            respondPrivately(interaction, NOT_PLAYING);
+            return;
+        }
+
+        if (!game.isViewed()) {
+            respondPrivately(interaction, "Your whole board is already shown.");
+            return;
+        }
+
+        Optional<String> positionOption = interaction.getOptionStringValueByName("position");
+        Optional<String> direction = interaction.getOptionStringValueByName("direction");
+        Optional<Boolean> follow = interaction.getOptionBooleanValueByName("follow");
+        if (positionOption.isEmpty() && direction.isEmpty() && follow.isEmpty()) {
+            respondPrivately(interaction, "Give a position or direction to move your view to, or whether it should follow your moves.");
+            return;
+        }
+
+        int position = Position.INVALID;
+        if (positionOption.isPresent()) {
+            position = Position.parse(positionOption.get());
+            if (position == Position.INVALID) {
+                respondPrivately(interaction, "Invalid position. Positions are formatted as A5 or B7");
+                return;
+            }
+            if (Position.getRow(position) >= game.getRows() || Position.getColumn(position) >= game.getColumns()) {
+                respondPrivately(interaction, "Invalid position. Your board goes from A1 to " + Position.format(game.getRows() - 1, game.getColumns() - 1));
+                return;
+            }
+        }
+        timing.parse().observeSince(received);
+
+        CompletableFuture<InteractionOriginalResponseUpdater> acknowledged = interaction.respondLater(true);
 
-                    game.getMessage().edit(eb).join();
+        int centre = position;
+        game.getMailbox().submit(() -> {
+            if (game.hasEnded() || game.hasWin()) {
+                return CompletableFuture.completedFuture(NOT_PLAYING);
+            }
+
+            if (game.getMessage() == null) {
+                return CompletableFuture.completedFuture("Your game is still being set up. Please try again.");
+            }
 
-                    interaction.createImmediateResponder()
-                            .setContent(":thumbsup:")
-                            .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                            .respond().join();
+            long gameStart = System.nanoTime();
+            if (centre != Position.INVALID) {
+                game.centreView(Position.getRow(centre), Position.getColumn(centre));
+            }
+            if (direction.isPresent()) {
+                int rows = game.getViewRows() / 2;
+                int cols = game.getViewColumns() / 2;
+                switch (direction.get()) {
+                    case "up" -> game.moveView(game.getViewRow() - rows, game.getViewColumn());
+                    case "down" -> game.moveView(game.getViewRow() + rows, game.getViewColumn());
+                    case "left" -> game.moveView(game.getViewRow(), game.getViewColumn() - cols);
+                    case "right" -> game.moveView(game.getViewRow(), game.getViewColumn() + cols);
                 }
+            }
+            game.setFollowing(follow.orElse(centre == Position.INVALID && direction.isEmpty() && game.isFollowing()));
+            timing.game().observeSince(gameStart);
+
+            long renderStart = System.nanoTime();
+            EmbedBuilder builder = new EmbedBuilder();
+            builder.setTitle(getTitle(game));
+            builder.setColor(Color.GRAY);
+            builder.addField("Bombs left", String.valueOf(game.getMinesLeft()));
+            setBoard(builder, game);
+            builder.setFooter(getFooter(interaction, game), interaction.getUser().getAvatar());
+            timing.render().observeSince(renderStart);
+
+            return timeEdit(timing, edits.edit(game.getMessage(), builder), ":thumbsup:");
+        })
+                .thenCompose(reply -> reply)
+                .thenCompose(reply -> acknowledged.thenCompose(updater -> updater.setContent(reply).update()))
+                .exceptionally(ExceptionLogger.get());
+    }
 
-                case "click" -> {
-                    if (!games.containsKey(interaction.getUser().getId())) {
-                        interaction.createImmediateResponder()
-                                .setContent("You are not currently playing Minesweeper. Type /play to start a game.")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+    /**
+     * Tells the player a safe tile, or the best guess when there isn't one.
+     */
+    private void hint(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        Game game = games.get(interaction.getUser().getId());
+        if (game == null) {
+            respondPrivately(interaction, NOT_PLAYING);
+            return;
+        }
 
-                    String position = interaction.getOptionStringValueByIndex(0).orElse("");
-                    if (position.length() != 2) {
-                        interaction.createImmediateResponder()
-                                .setContent("Invalid position. Positions are formatted as A5 or B7")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+        CompletableFuture<InteractionOriginalResponseUpdater> acknowledged = interaction.respondLater(true);
 
-                    if (!Character.isLetter(position.charAt(0)) || !Character.isDigit(position.charAt(1))) {
-                        interaction.createImmediateResponder()
-                                .setContent("Invalid position. Positions are formatted as A5 or B7")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+        // The solver reads the board, so it runs in the mailbox between moves
+        game.getMailbox().submit(() -> {
+            if (game.hasEnded() || game.hasWin()) {
+                return NOT_PLAYING;
+            }
 
-                    char pos1 = Character.toLowerCase(position.charAt(0));
-                    int pos2 = Integer.parseInt(position.substring(1, 2));
-
-                    int row = switch(pos1) {
-                        case 'a' -> 0;
-                        case 'b' -> 1;
-                        case 'c' -> 2;
-                        case 'd' -> 3;
-                        case 'e' -> 4;
-                        case 'f' -> 5;
-                        case 'g' -> 6;
-                        case 'h' -> 7;
-                        case 'i' -> 8;
-                        default -> -1;
-                    };
-                    int col = pos2 - 1;
-                    if (col < 0 || col > 9) {
-                        interaction.createImmediateResponder()
-                                .setContent("Invalid position. Positions are formatted as A5 or B7")
-                                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                                .respond().join();
-                        return;
-                    }
+            if (game.getDay() != 0) {
+                return "Hints can't be used in the daily challenge.";
+            }
 
-                    Game game = games.get(interaction.getUser().getId());
-                    game.onClick(row, col);
+            long gameStart = System.nanoTime();
+            Solver.Hint hint = game.getHint();
+            timing.game().observeSince(gameStart);
+            String position = Position.format(hint.row(), hint.col());
+            if (hint.isSafe()) {
+                return position + " is safe to click.";
+            }
+            return "There are no safe tiles. " + position + " is the best guess, with a "
+                    + Math.round(hint.mineChance() * 100) + "% chance of having a bomb.";
+        })
+                .thenCompose(reply -> acknowledged.thenCompose(updater -> updater.setContent(reply).update()))
+                .exceptionally(ExceptionLogger.get());
+    }
+
+    /**
+     * Shows the wins, losses, and best times of a player.
+     */
+    private void stats(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        User player = interaction.getOptionUserValueByName("player").orElse(interaction.getUser());
+        GameHistory.PlayerStats stats = history.getStats(player.getId());
+        if (stats == null) {
+            respondPrivately(interaction, player.getName() + " hasn't finished a game yet.");
+            return;
+        }
+
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setTitle("Minesweeper Stats");
+        eb.setColor(Color.GRAY);
+        eb.setFooter(player.getDiscriminatedName(), player.getAvatar());
+        eb.addInlineField("Wins", String.valueOf(stats.getWins()));
+        eb.addInlineField("Losses", String.valueOf(stats.getLosses()));
+        for (Difficulty difficulty : Difficulty.values()) {
+            long bestTime = stats.getBestTime(difficulty);
+            eb.addField("Best time (" + difficulty.getName() + ")", bestTime == 0 ? "None" : formatTime(bestTime));
+        }
+
+        interaction.createImmediateResponder()
+                .addEmbed(eb)
+                .respond().exceptionally(ExceptionLogger.get());
+    }
+
+    /**
+     * Shows the fastest wins in the server on a difficulty, or of today's daily challenge.
+     */
+    private void leaderboard(SlashCommandInteraction interaction, CommandMetrics timing, long received) {
+        String choice = interaction.getOptionStringValueByName("difficulty").orElse("beginner");
+        String title;
+        List<GameHistory.Leaderboard.Entry> entries;
+        if (choice.equals("daily")) {
+            // Only the day is needed, so this doesn't wait for today's board
+            int today = DailyChallenge.getCurrentDay();
+            title = "Daily Challenge Leaderboard (" + LocalDate.ofEpochDay(today) + ")";
+            entries = history.getDailyLeaderboard(today);
+        } else {
+            Difficulty difficulty = Difficulty.valueOf(choice.toUpperCase());
+            title = "Minesweeper Leaderboard (" + difficulty.getName() + ")";
+            entries = history.getLeaderboard(interaction.getServer().map(Server::getId).orElse(0L), difficulty);
+        }
 
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < entries.size(); i++) {
+            sb.append(i + 1);
+            sb.append(". <@");
+            sb.append(entries.get(i).userId());
+            sb.append("> - ");
+            sb.append(formatTime(entries.get(i).time()));
+            sb.append("\n");
+        }
+
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setTitle(title);
+        eb.setColor(Color.GRAY);
+        eb.setDescription(entries.isEmpty() ? "Nobody has won a game yet." : sb.toString());
+
+        interaction.createImmediateResponder()
+                .addEmbed(eb)
+                .respond().exceptionally(ExceptionLogger.get());
+    }
+
+    /**
+     * Replies with a message only the player can see.
+     */
+    private static void respondPrivately(SlashCommandInteraction interaction, String content) {
+        interaction.createImmediateResponder()
+                .setContent(content)
+                .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
+                .respond().exceptionally(ExceptionLogger.get());
+    }
+
+    /**
+     * Sends the message of a no-guess game once its board has been generated.
+     * The player's game is added before the board is ready, so they can't start two games while waiting.
+     * @param interaction The interaction that started the game.
+     * @param game The game, which has already been added for the player.
+     * @param seeded If the player gave a seed, which is used instead of a random board.
+     * @param timing The metrics of the play command, where generating the board is counted as the game phase.
+     */
+    private void startNoGuessGame(SlashCommandInteraction interaction, Game game, boolean seeded, CommandMetrics timing) {
+        // Generating can take a while, so Discord is told the command was received first
+        CompletableFuture<InteractionOriginalResponseUpdater> acknowledged = interaction.respondLater();
+
+        long gameStart = System.nanoTime();
+        CompletableFuture<Board> generated = seeded
+                ? generator.generate(game.getRows(), game.getColumns(), game.getMines(), game.getSeed())
+                : generator.generate(game.getRows(), game.getColumns(), game.getMines());
+
+        generated
+                .thenCompose(layout -> game.getMailbox().submit(() -> {
+                    game.useLayout(layout);
+                    timing.game().observeSince(gameStart);
+
+                    long renderStart = System.nanoTime();
                     EmbedBuilder eb = new EmbedBuilder();
-                    if (game.hasEnded()) {
-                        games.remove(interaction.getUser().getId());
-                        eb.addField("You lose!", "Time: " + formatTime(System.currentTimeMillis() - game.getStartTime()));
-                        eb.setColor(Color.RED);
-                    } else if (game.hasWin()) {
-                        games.remove(interaction.getUser().getId());
-                        eb.addField("You win!", "Time: " + formatTime(System.currentTimeMillis() - game.getStartTime()));
-                        eb.setColor(Color.GREEN);
+                    eb.setTitle("Minesweeper");
+                    eb.setColor(Color.GRAY);
+                    eb.addField("Bombs left", String.valueOf(game.getMinesLeft()));
+                    eb.setFooter(getFooter(interaction, game), interaction.getUser().getAvatar());
+                    setBoard(eb, game);
+                    timing.render().observeSince(renderStart);
+                    return eb;
+                }))
+                .thenCompose(eb -> {
+                    long editStart = System.nanoTime();
+                    return acknowledged.thenCompose(updater -> updater.addEmbed(eb).update())
+                            .whenComplete((message, e) -> timing.edit().observeSince(editStart));
+                })
+                .thenAccept(message -> game.getMailbox().execute(() -> {
+                    game.setMessage(message);
+                    game.start();
+                    store.save(interaction.getUser().getId(), game);
+                }))
+                .exceptionally(e -> {
+                    games.remove(interaction.getUser().getId(), game);
+
+                    // Boards that couldn't be found in time are explained to the player, anything else is logged
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    String reply = "Your game couldn't be started. Please try again.";
+                    if (cause instanceof IllegalStateException) {
+                        reply = cause.getMessage();
                     } else {
-                        game.refreshBoard();
-                        eb.setColor(Color.GRAY);
+                        e.printStackTrace();
                     }
 
-                    eb.setTitle("Minesweeper");
-                    eb.setDescription(game.toString());
-                    eb.setFooter(interaction.getUser().getDiscriminatedName(), interaction.getUser().getAvatar());
-                    game.getMessage().edit(eb).join();
-
-                    interaction.createImmediateResponder()
-                            .setContent(":thumbsup:")
-                            .setFlags(InteractionCallbackDataFlag.EPHEMERAL)
-                            .respond().join();
-                }
+                    String content = reply;
+                    acknowledged.thenCompose(updater -> updater.setContent(content).update()).exceptionally(ExceptionLogger.get());
+                    return null;
+                });
+    }
+
+    /**
+     * Times a message edit from when it is requested until Discord has it, which includes waiting to be merged with other edits.
+     * @param reply The reply to the player.
+     * @return A future that completes with the reply once the edit has been sent.
+     */
+    private static CompletableFuture<String> timeEdit(CommandMetrics timing, CompletableFuture<Void> edit, String reply) {
+        long editStart = System.nanoTime();
+        return edit.thenApply(v -> {
+            timing.edit().observeSince(editStart);
+            return reply;
+        });
+    }
+
+    /**
+     * Adds a finished game to the player's history.
+     * @param interaction The interaction that finished the game.
+     * @param game The game that finished.
+     * @param won If the player won the game.
+     */
+    private void recordResult(SlashCommandInteraction interaction, Game game, boolean won) {
+        try {
+            history.record(interaction.getUser().getId(),
+                    interaction.getServer().map(Server::getId).orElse(0L),
+                    Difficulty.find(game.getRows(), game.getColumns(), game.getMines()),
+                    won,
+                    System.currentTimeMillis() - game.getStartTime(),
+                    game.getDay());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return The title of a game's embed.
+     */
+    private static String getTitle(Game game) {
+        return game.getDay() == 0 ? "Minesweeper" : "Daily Challenge (" + LocalDate.ofEpochDay(game.getDay()) + ")";
+    }
+
+    /**
+     * Shows the board in a game's embed, as text if it fits in the description and as an attached image if it doesn't.
+     * Boards too large to show at once only show their window, along with which tiles it covers.
+     */
+    private static void setBoard(EmbedBuilder builder, Game game) {
+        if (game.isDrawnAsImage()) {
+            builder.setImage(game.renderImage(), "png");
+            return;
+        }
+
+        builder.setDescription(game.toString());
+        if (game.isViewed()) {
+            String from = Position.format(game.getViewRow(), game.getViewColumn());
+            String to = Position.format(game.getViewRow() + game.getViewRows() - 1, game.getViewColumn() + game.getViewColumns() - 1);
+            builder.addField("Showing " + from + " to " + to, game.isFollowing()
+                    ? "The view follows your moves. Use /view to move it yourself."
+                    : "Use /view to move the view, or to follow your moves.");
+        }
+    }
+
+    /**
+     * @return The footer of a game's embed. The seed of a daily challenge isn't shown, since it would let players practice the board.
+     */
+    private static String getFooter(SlashCommandInteraction interaction, Game game) {
+        String name = interaction.getUser().getDiscriminatedName();
+        return game.getDay() == 0 ? name + " | Seed " + game.getSeed() : name;
+    }
+
+    /**
+     * Loads the games that were being played when the bot stopped and reattaches them to their messages.
+     * Games are saved to disk as they are played, and saved games are removed once they finish.
+     */
+    private void loadGames() {
+        games.setRemovalListener(store::remove);
+
+        Map<Long, Game> savedGames;
+        try {
+            savedGames = store.load();
+        } catch (IOException e) {
+            // New games are still saved, the games that couldn't be read are kept aside by the store
+            e.printStackTrace();
+            savedGames = Map.of();
+        }
+
+        savedGames.forEach((userId, game) -> {
+            if (game.hasEnded() || game.hasWin()) {
+                store.remove(userId, game);
+                return;
             }
+
+            api.getTextChannelById(game.getChannelId())
+                    .map(channel -> channel.getMessageById(game.getMessageId()))
+                    .orElseGet(() -> CompletableFuture.failedFuture(new IllegalStateException("Channel " + game.getChannelId() + " not found")))
+                    .thenAccept(message -> {
+                        game.setMessage(message);
+                        games.create(userId, game);
+                    })
+                    .exceptionally(e -> {
+                        // Message was deleted or can't be seen anymore
+                        store.remove(userId, game);
+                        return null;
+                    });
         });
+        System.out.println("Loaded " + savedGames.size() + " saved games");
+
+        // Compact the move log into a snapshot every 10 minutes, and write the game history to disk with it
+        store.startCompaction(games, 10, history::force);
     }
 
     private static String formatTime(long duration) {
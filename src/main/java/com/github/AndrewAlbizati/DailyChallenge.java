@@ -0,0 +1,113 @@
+package com.github.AndrewAlbizati;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A new board every day that everyone plays once, racing for the fastest time.
+ * The day's board is generated once from the date and is never changed. Each player's game is an overlay on top of it
+ * that only has its own revealed tiles and flags, and games share the text of rows that look the same.
+ */
+public class DailyChallenge {
+    private static final Difficulty DIFFICULTY = Difficulty.EXPERT;
+    // About one in six Expert boards can be solved without guessing, so this many seeds never run out in practice
+    private static final int MAX_TRIES = 1000;
+
+    private final NoGuessGenerator generator;
+    // Challenges by day, today's and tomorrow's once they have been asked for
+    private final Map<Integer, CompletableFuture<Day>> days = new ConcurrentHashMap<>();
+
+    /**
+     * @param generator Generates the boards of the challenges on its workers.
+     */
+    public DailyChallenge(NoGuessGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * @return The current day in UTC, as days since 1970-01-01.
+     */
+    public static int getCurrentDay() {
+        return (int) LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    /**
+     * Gets today's challenge, in UTC. Its board is generated the first time it is asked for, and tomorrow's board is
+     * generated along with it so it is usually ready before midnight.
+     * @return A future that completes with today's challenge, or fails with an IllegalStateException if its board couldn't be made.
+     */
+    public CompletableFuture<Day> getToday() {
+        int today = getCurrentDay();
+        // Past challenges can't be played anymore
+        days.keySet().removeIf(day -> day < today);
+        getDay(today + 1);
+        return getDay(today);
+    }
+
+    /**
+     * Generates a day's board, a no-guess board from the first seed after the day's own seed that has one,
+     * so the board is the same every time it is generated.
+     */
+    private CompletableFuture<Day> getDay(int day) {
+        return days.computeIfAbsent(day, key -> {
+            long seed = (day * 0x9E3779B97F4A7C15L) & Game.MAX_SEED;
+            return generator.generateFrom(DIFFICULTY.getRows(), DIFFICULTY.getColumns(), DIFFICULTY.getMines(), seed, MAX_TRIES)
+                    .thenApply(layout -> new Day(day, layout));
+        });
+    }
+
+    /**
+     * The board of one day's challenge.
+     */
+    public static class Day {
+        private final int day;
+        private final Board layout;
+        private final BoardRenderer.SharedRows rows = new BoardRenderer.SharedRows();
+        // Players who have started the challenge since the bot started, finished games are kept in the history
+        private final Set<Long> players = ConcurrentHashMap.newKeySet();
+
+        private Day(int day, Board layout) {
+            this.day = day;
+            this.layout = layout;
+        }
+
+        /**
+         * @return The day of the challenge, as days since 1970-01-01.
+         */
+        public int getDay() {
+            return day;
+        }
+
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(day);
+        }
+
+        /**
+         * @param userId The ID of the player.
+         * @return If the player has started the challenge since the bot started.
+         */
+        public boolean hasStarted(long userId) {
+            return players.contains(userId);
+        }
+
+        /**
+         * Records that a player has started the challenge, so they can't play it again.
+         * @param userId The ID of the player.
+         */
+        public void markStarted(long userId) {
+            players.add(userId);
+        }
+
+        /**
+         * Creates a game of the challenge, which starts with the board's opening revealed.
+         * @return The new game.
+         */
+        public Game createGame() {
+            return new Game(layout.overlay(), DIFFICULTY.getMines(), rows, day);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.AndrewAlbizati;
+
+/**
+ * The board sizes that can be picked when starting a game.
+ */
+public enum Difficulty {
+    BEGINNER("Beginner", 9, 9, 10),
+    INTERMEDIATE("Intermediate", 16, 16, 40),
+    EXPERT("Expert", 16, 30, 99);
+
+    private final String name;
+    private final int rows;
+    private final int cols;
+    private final int mines;
+
+    Difficulty(String name, int rows, int cols, int mines) {
+        this.name = name;
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return cols;
+    }
+
+    public int getMines() {
+        return mines;
+    }
+
+    /**
+     * Finds the difficulty that has a board of the given size.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     * @return The difficulty, or null if the board has a custom size.
+     */
+    public static Difficulty find(int rows, int cols, int mines) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.rows == rows && difficulty.cols == cols && difficulty.mines == mines) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.AndrewAlbizati;
+
+import org.javacord.api.entity.message.Message;
+import org.javacord.api.entity.message.MessageUpdater;
+import org.javacord.api.entity.message.embed.EmbedBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Sends message edits for games without going over Discord's rate limits.
+ * Edits requested for the same message within a short window are merged so only the latest embed is sent,
+ * and edits in the same channel are spaced out so they never go out in a burst.
+ */
+public class EditScheduler {
+    private final ScheduledExecutorService scheduler;
+    private final long window;
+    private final long channelInterval;
+    private final BiFunction<Message, EmbedBuilder, CompletableFuture<?>> messageSender;
+
+    private final ConcurrentHashMap<Long, PendingEdit> pendingEdits = new ConcurrentHashMap<>();
+    // When each channel can next be edited, only changed on the scheduler thread. Channels are removed once that time
+    // has passed, since a channel that isn't here can be edited right away
+    private final ConcurrentHashMap<Long, Long> nextChannelEdit = new ConcurrentHashMap<>();
+
+    private final LongAdder editsRequested = new LongAdder();
+    private final LongAdder editsSent = new LongAdder();
+
+    /**
+     * @param window How long to wait for more edits to the same message before sending, in milliseconds.
+     * @param channelInterval The least amount of time between two edits in the same channel, in milliseconds.
+     */
+    public EditScheduler(long window, long channelInterval) {
+        this(window, channelInterval, (message, embed) -> new MessageUpdater(message).addEmbed(embed).replaceMessage());
+    }
+
+    /**
+     * @param window How long to wait for more edits to the same message before sending, in milliseconds.
+     * @param channelInterval The least amount of time between two edits in the same channel, in milliseconds.
+     * @param messageSender Sends an embed to a message, replaced in benchmarks where there is no connection to Discord.
+     */
+    EditScheduler(long window, long channelInterval, BiFunction<Message, EmbedBuilder, CompletableFuture<?>> messageSender) {
+        this.window = window;
+        this.channelInterval = channelInterval;
+        this.messageSender = messageSender;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "message-edits");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a message to be edited.
+     * The whole message is replaced, since Message.edit() only sends the embed and not the image a large board is drawn as.
+     * Replacing also removes the image of the last edit, so images don't pile up on the message.
+     * @param message The message to edit.
+     * @param embed The new embed of the message.
+     * @return A future that completes once this embed, or one requested after it, has been sent.
+     */
+    public CompletableFuture<Void> edit(Message message, EmbedBuilder embed) {
+        return edit(message.getChannel().getId(), message.getId(), embed, latest -> messageSender.apply(message, latest));
+    }
+
+    /**
+     * Schedules a message to be edited.
+     * @param channelId The ID of the channel the message is in.
+     * @param messageId The ID of the message to edit.
+     * @param embed The new embed of the message.
+     * @param sender Sends an embed to the message, only called for the latest embed of each window.
+     * @return A future that completes once this embed, or one requested after it, has been sent.
+     */
+    public CompletableFuture<Void> edit(long channelId, long messageId, EmbedBuilder embed, Function<EmbedBuilder, CompletableFuture<?>> sender) {
+        editsRequested.increment();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        while (true) {
+            PendingEdit pending = pendingEdits.computeIfAbsent(messageId, id -> new PendingEdit(channelId, messageId));
+            synchronized (pending) {
+                // Message finished its last edit and was removed in between, start over with a new entry
+                if (pending.removed) {
+                    continue;
+                }
+
+                // The latest embed is sent the way it was asked to be sent
+                pending.embed = embed;
+                pending.sender = sender;
+                pending.waiting.add(future);
+                if (!pending.active) {
+                    pending.active = true;
+                    scheduler.schedule(() -> reserve(pending), window, TimeUnit.MILLISECONDS);
+                }
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Reserves the next free time slot in the message's channel and sends the edit once it comes.
+     */
+    private void reserve(PendingEdit pending) {
+        long now = System.currentTimeMillis();
+        long slot = Math.max(nextChannelEdit.getOrDefault(pending.channelId, 0L), now);
+        Long next = slot + channelInterval;
+        nextChannelEdit.put(pending.channelId, next);
+
+        scheduler.schedule(() -> send(pending), slot - now, TimeUnit.MILLISECONDS);
+        // Unless another edit in the channel reserved a later slot by then
+        scheduler.schedule(() -> nextChannelEdit.remove(pending.channelId, next), next - now, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(PendingEdit pending) {
+        EmbedBuilder embed;
+        Function<EmbedBuilder, CompletableFuture<?>> sender;
+        List<CompletableFuture<Void>> waiting;
+        synchronized (pending) {
+            embed = pending.embed;
+            sender = pending.sender;
+            waiting = pending.waiting;
+            pending.embed = null;
+            pending.sender = null;
+            pending.waiting = new ArrayList<>();
+        }
+
+        editsSent.increment();
+        CompletableFuture<?> sent;
+        try {
+            sent = sender.apply(embed);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+
+        sent.whenComplete((result, e) -> {
+            for (CompletableFuture<Void> future : waiting) {
+                if (e == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            synchronized (pending) {
+                if (pending.embed != null) {
+                    // More edits came in while this one was being sent
+                    scheduler.schedule(() -> reserve(pending), window, TimeUnit.MILLISECONDS);
+                } else {
+                    pending.active = false;
+                    pending.removed = true;
+                    pendingEdits.remove(pending.messageId, pending);
+                }
+            }
+        });
+    }
+
+    public long getEditsRequested() {
+        return editsRequested.sum();
+    }
+
+    public long getEditsSent() {
+        return editsSent.sum();
+    }
+
+    /**
+     * @return The amount of channels with an edit slot reserved that hasn't passed yet.
+     */
+    int getReservedChannels() {
+        return nextChannelEdit.size();
+    }
+
+    /**
+     * The latest embed waiting to be sent to a message.
+     */
+    private static class PendingEdit {
+        private final long channelId;
+        private final long messageId;
+
+        private EmbedBuilder embed;
+        private Function<EmbedBuilder, CompletableFuture<?>> sender;
+        private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        // An edit is waiting for its time slot or being sent
+        private boolean active = false;
+        private boolean removed = false;
+
+        private PendingEdit(long channelId, long messageId) {
+            this.channelId = channelId;
+            this.messageId = messageId;
+        }
+    }
+}
@@ -2,38 +2,149 @@ package com.github.AndrewAlbizati;
 
 import org.javacord.api.entity.message.Message;
 
-import java.util.Random;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Game {
-    private final Tile[][] tiles;
-    private Message message;
+    // Seeds are kept below 2^53 so they can be given back to the bot in a Discord integer option
+    public static final long MAX_SEED = (1L << 53) - 1;
+
+    // Boards with more rows or columns than this are shown a window at a time, larger images are shrunk until they can't be read
+    public static final int MAX_SHOWN_SIZE = 99;
+    public static final int VIEW_ROWS = 20;
+    public static final int VIEW_COLUMNS = 20;
+
+    private final Board board;
+    private final BoardRenderer renderer;
+    // Created on the first render of a board that is too large for text
+    private ImageRenderer imageRenderer;
+    // If only a window of the board is shown, and if the window moves to each tile the player plays
+    private final boolean viewed;
+    private boolean following = true;
+    // Created on the first hint, keeps what it has worked out for later hints
+    private Solver solver;
+    private volatile Message message;
+    private long channelId;
+    private long messageId;
+
+    // Moves are run through the mailbox so that a game is only ever changed by one thread at a time
+    private final GameMailbox mailbox = new GameMailbox();
 
     private final int rows;
     private final int cols;
     private final int mines;
 
+    // Bombs are placed by a generator made from the seed, so the same seed and first click always give the same board
+    private long seed;
+
+    // The day of the daily challenge this game is, as days since 1970-01-01, or 0 if it isn't one
+    private int day = 0;
+
+    // Kept up to date by onClick() and addFlag() so the board never has to be scanned
+    private int hiddenTiles;
+    private int flagsPlaced = 0;
+
+    // Every click and flag counts as a move, used to tell which logged moves a saved game already has
+    private int moves = 0;
+
     private boolean gameStarted = false;
     private boolean gameEnded = false;
 
     private long startTime;
+    private volatile long lastActivity;
 
     /**
-     * Sets up a game of Minesweeper that is ready to be started by the start() method.
+     * Sets up a beginner game of Minesweeper that is ready to be started by the start() method.
      */
     public Game() {
-        this.rows = 9;
-        this.cols = 9;
-        this.mines = 10;
+        this(Difficulty.BEGINNER);
+    }
 
-        tiles = new Tile[rows][cols];
+    /**
+     * Sets up a game of Minesweeper with the size of a difficulty that is ready to be started by the start() method.
+     * @param difficulty The difficulty of the game.
+     */
+    public Game(Difficulty difficulty) {
+        this(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines());
+    }
 
-        // Create tiles
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                tiles[r][c] = new Tile(r, c);
-            }
+    /**
+     * Sets up a game of Minesweeper with a custom size that is ready to be started by the start() method.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     */
+    public Game(int rows, int cols, int mines) {
+        this(rows, cols, mines, ThreadLocalRandom.current().nextLong(MAX_SEED + 1));
+    }
+
+    /**
+     * Sets up a game of Minesweeper with a custom size and a seed that is ready to be started by the start() method.
+     * The same seed and first click always give the same board.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     * @param seed The seed that decides where the bombs go.
+     */
+    public Game(int rows, int cols, int mines, long seed) {
+        this(createBoard(rows, cols, mines), mines, seed, null);
+    }
+
+    /**
+     * Sets up a daily challenge game, whose board shares its bombs with every other player's game. See DailyChallenge.
+     * The game has already started, with the opening of the board revealed.
+     * @param board The player's board, made with Board.overlay() so only its revealed tiles and flags are the player's own.
+     * @param mines The amount of bombs on the board.
+     * @param sharedRows Rows shared with the other players' games.
+     * @param day The day of the challenge, as days since 1970-01-01.
+     */
+    public Game(Board board, int mines, BoardRenderer.SharedRows sharedRows, int day) {
+        this(board, mines, board.getSeed(), sharedRows);
+        this.day = day;
+        gameStarted = true;
+        countTiles();
+    }
+
+    private Game(Board board, int mines, long seed, BoardRenderer.SharedRows sharedRows) {
+        this.rows = board.getRows();
+        this.cols = board.getColumns();
+        this.mines = mines;
+        this.seed = seed;
+
+        this.board = board;
+        viewed = rows > MAX_SHOWN_SIZE || cols > MAX_SHOWN_SIZE;
+        renderer = viewed ? new BoardRenderer(board, VIEW_ROWS, VIEW_COLUMNS) : new BoardRenderer(board, sharedRows);
+        hiddenTiles = rows * cols - mines;
+
+        // The first click is suggested in the middle of the board
+        centreView(rows / 2, cols / 2);
+    }
+
+    private static Board createBoard(int rows, int cols, int mines) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("A board needs at least one row and one column");
         }
-        generateBoard();
+        if (rows > Position.MAX_ROWS || cols > Position.MAX_COLUMNS) {
+            throw new IllegalArgumentException("A board can have at most " + Position.MAX_ROWS + " rows and " + Position.MAX_COLUMNS + " columns");
+        }
+        // The first tile clicked and the tiles around it never have a bomb
+        if (mines < 0 || mines > Math.max(rows * cols - 9, 0)) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " board can have at most " + Math.max(rows * cols - 9, 0) + " bombs");
+        }
+        return new Board(rows, cols);
+    }
+
+    /**
+     * @return The board of the game, which should only be read.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    public GameMailbox getMailbox() {
+        return mailbox;
     }
 
     public Message getMessage() {
@@ -42,12 +153,88 @@ public class Game {
 
     public void setMessage(Message message) {
         this.message = message;
+        this.channelId = message.getChannel().getId();
+        this.messageId = message.getId();
+    }
+
+    /**
+     * @return The ID of the channel the game's message is in, which is kept when a game is saved.
+     */
+    public long getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * @return The ID of the game's message, which is kept when a game is saved.
+     */
+    public long getMessageId() {
+        return messageId;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return cols;
+    }
+
+    public int getMines() {
+        return mines;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The day of the daily challenge this game is, as days since 1970-01-01, or 0 if it isn't a daily challenge.
+     */
+    public int getDay() {
+        return day;
+    }
+
+    /**
+     * @return The amount of bombs minus the amount of flags placed.
+     */
+    public int getMinesLeft() {
+        return mines - flagsPlaced;
+    }
+
+    public int getFlagsPlaced() {
+        return flagsPlaced;
+    }
+
+    /**
+     * @return The amount of tiles without a bomb that haven't been revealed.
+     */
+    public int getHiddenTiles() {
+        return hiddenTiles;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public boolean hasStarted() {
+        return gameStarted;
     }
 
     public long getStartTime() {
         return startTime;
     }
 
+    public long getLastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * Records that the game was just played, which keeps it from being removed for being idle.
+     */
+    public void updateLastActivity() {
+        lastActivity = System.currentTimeMillis();
+    }
+
     /**
      * Starts the timer.
      */
@@ -56,104 +243,16 @@ public class Game {
     }
 
     /**
-     * Creates a brand-new board with newly and randomly placed bombs. Removes all flags and hides all tiles.
+     * Uses a board that already has its bombs placed and its opening revealed, instead of placing bombs on the first click.
+     * Used for no-guess games, whose boards are checked before the game starts. The game takes the seed of the board.
+     * @param layout A board with the same size and amount of bombs as the game.
      */
-    private void generateBoard() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Tile tile = tiles[r][c];
-                tile.setText(":white_medium_square:");
-                tile.setRevealed(false);
-                tile.setHasFlag(false);
-                tile.setHasBomb(false);
-            }
-        }
-
-        // Generate bombs
-        int minesOnBoard = 0;
-        while (minesOnBoard < mines) {
-
-            int x = (int) (Math.random() * rows);
-            int y = (int) (Math.random() * cols);
-
-            if (tiles[x][y].hasBomb()) {
-                continue;
-            }
-            tiles[x][y].setHasBomb(true);
-            minesOnBoard++;
-        }
-
-        // Calculate adjacent bombs for each tile
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Tile tile = tiles[r][c];
-                if (tile.hasBomb()) {
-                    continue;
-                }
-
-                int adjacentBombs = 0;
-
-                // Get tiles above
-                if (r > 0) {
-                    // Top middle tile
-                    if (tiles[r - 1][c].hasBomb()) {
-                        adjacentBombs++;
-                    }
-
-                    // Top left tile
-                    if (c > 0) {
-                        if (tiles[r - 1][c - 1].hasBomb()) {
-                            adjacentBombs++;
-                        }
-                    }
-
-                    // Top right tile
-                    if (c < cols - 1) {
-                        if (tiles[r - 1][c + 1].hasBomb()) {
-                            adjacentBombs++;
-                        }
-                    }
-                }
-
-                // Get tiles below
-                if (r < rows - 1) {
-                    // Bottom middle tile
-                    if (tiles[r + 1][c].hasBomb()) {
-                        adjacentBombs++;
-                    }
-
-                    // Bottom left tile
-                    if (c > 0) {
-                        if (tiles[r + 1][c - 1].hasBomb()) {
-                            adjacentBombs++;
-                        }
-                    }
-
-                    // Bottom right tile
-                    if (c < cols - 1) {
-                        if (tiles[r + 1][c + 1].hasBomb()) {
-                            adjacentBombs++;
-                        }
-                    }
-                }
-
-                // Get left tile
-                if (c > 0) {
-                    if (tiles[r][c - 1].hasBomb()) {
-                        adjacentBombs++;
-                    }
-                }
-
-                // Get right tile
-                if (c < cols - 1) {
-                    if (tiles[r][c + 1].hasBomb()) {
-                        adjacentBombs++;
-                    }
-                }
-
-                tile.setNumber(adjacentBombs);
-            }
-        }
+    public void useLayout(Board layout) {
+        board.copyFrom(layout);
+        seed = layout.getSeed();
+        gameStarted = true;
+        countTiles();
+        renderer.markAllChanged();
     }
 
     /**
@@ -162,21 +261,18 @@ public class Game {
      * @param col The column of the tile that will be flagged.
      */
     public void addFlag(int row, int col) {
-        Tile tile = tiles[row][col];
-        if (tile.getRevealed()) {
+        moves++;
+        follow(row, col);
+        int index = board.getIndex(row, col);
+        if (board.isRevealed(index)) {
             return;
         }
 
-        // Remove flag
-        if (tile.getHasFlag()) {
-            tile.setText(":white_medium_square:");
-            tile.setHasFlag(false);
-        // Place flag
-        } else {
-            tile.setText(":triangular_flag_on_post:");
-            tile.setHasFlag(true);
-        }
-        refreshBoard();
+        // Place or remove flag
+        boolean flag = !board.hasFlag(index);
+        board.setFlag(index, flag);
+        flagsPlaced += flag ? 1 : -1;
+        renderer.markChanged(index);
     }
 
     /**
@@ -185,179 +281,88 @@ public class Game {
      * @param col The column of the tile to be clicked on.
      */
     public void onClick(int row, int col) {
-        Tile tile = tiles[row][col];
-        if (tile.getHasFlag()) {
+        moves++;
+        follow(row, col);
+        int index = board.getIndex(row, col);
+        if (board.hasFlag(index)) {
             return; // Ignore when a player left-clicks a tile with a flag
         }
 
-        // Generate new boards until the first tile revealed is a blank space
+        // Bombs are placed once the first tile is clicked, keeping that tile and the tiles around it clear
         // Prevents game from instantly ending
         if (!gameStarted) {
-            if (tile.hasBomb()) {
-                generateBoard();
-                onClick(tile.getRow(), tile.getColumn());
-            } else if (tile.getNumber() != 0) {
-                generateBoard();
-                onClick(tile.getRow(), tile.getColumn());
-            }
+            board.placeMines(mines, index, seed);
             gameStarted = true;
         }
 
         // Clicked on a tile with a bomb
-        if (tile.hasBomb()) {
+        if (board.hasMine(index)) {
             revealAllTiles();
             gameEnded = true;
             return;
         }
 
-        if (tile.getNumber() != 0) {
-            tile.setRevealed(true);
-        } else {
-            revealSurroundingTiles(tile);
+        int revealed = board.reveal(index);
+        for (int i = 0; i < revealed; i++) {
+            renderer.markChanged(board.getRevealedTile(i));
         }
-        refreshBoard();
+        hiddenTiles -= revealed;
     }
 
     /**
-     * Recursively reveals all tiles that should be revealed.
-     * Reveals all adjacent tiles until it reaches a tile with a number (tile with adjacent bomb).
-     * @param tile Tile that a player has clicked.
+     * Chords a revealed number: if the number has as many flags around it as bombs, every other tile around it is revealed.
+     * Like a click, it ends the game if one of those tiles has a bomb, which happens when a flag is in the wrong place.
+     * @param row The row of the number.
+     * @param col The column of the number.
      */
-    private void revealSurroundingTiles(Tile tile) {
-        if (tile.getHasFlag()) {
+    public void chord(int row, int col) {
+        moves++;
+        follow(row, col);
+        int index = board.getIndex(row, col);
+        if (!board.isRevealed(index) || board.hasMine(index) || board.getNumber(index) == 0) {
             return;
         }
-        tile.setRevealed(true);
-
-        // Get tiles above
-        if (tile.getRow() > 0) {
-            // Top middle tile
-            Tile topMiddle = tiles[tile.getRow() - 1][tile.getColumn()];
-            if (topMiddle.getNumber() == 0) {
-                if (!topMiddle.getRevealed()) {
-                    revealSurroundingTiles(topMiddle);
-                }
-            } else {
-                topMiddle.setRevealed(true);
-            }
-
-            // Top left tile
-            if (tile.getColumn() > 0) {
-                Tile topLeft = tiles[tile.getRow() - 1][tile.getColumn() - 1];
-                if (topLeft.getNumber() == 0) {
-                    if (!topLeft.getRevealed()) {
-                        revealSurroundingTiles(topLeft);
-                    }
-                } else {
-                    topLeft.setRevealed(true);
-                }
-            }
 
-            // Top right tile
-            if (tile.getColumn() < cols - 1) {
-                Tile topRight = tiles[tile.getRow() - 1][tile.getColumn() + 1];
-                if (topRight.getNumber() == 0) {
-                    if (!topRight.getRevealed()) {
-                        revealSurroundingTiles(topRight);
-                    }
-                } else {
-                    topRight.setRevealed(true);
-                }
+        int flagsAround = 0;
+        for (int mask = board.getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+            if (board.hasFlag(board.getNeighbour(index, mask))) {
+                flagsAround++;
             }
         }
-
-        // Get tiles below
-        if (tile.getRow() < rows - 1) {
-            // Bottom middle tile
-            Tile bottomMiddle = tiles[tile.getRow() + 1][tile.getColumn()];
-            if (bottomMiddle.getNumber() == 0) {
-                if (!bottomMiddle.getRevealed()) {
-                    revealSurroundingTiles(bottomMiddle);
-                }
-            } else {
-                bottomMiddle.setRevealed(true);
-            }
-
-            // Bottom left tile
-            if (tile.getColumn() > 0) {
-                Tile bottomLeft = tiles[tile.getRow() + 1][tile.getColumn() - 1];
-                if (bottomLeft.getNumber() == 0) {
-                    if (!bottomLeft.getRevealed()) {
-                        revealSurroundingTiles(bottomLeft);
-                    }
-                } else {
-                    bottomLeft.setRevealed(true);
-                }
-            }
-
-            // Bottom right tile
-            if (tile.getColumn() < cols - 1) {
-                Tile bottomRight = tiles[tile.getRow() + 1][tile.getColumn() + 1];
-                if (bottomRight.getNumber() == 0) {
-                    if (!bottomRight.getRevealed()) {
-                        revealSurroundingTiles(bottomRight);
-                    }
-                } else {
-                    bottomRight.setRevealed(true);
-                }
-            }
+        if (flagsAround != board.getNumber(index)) {
+            return;
         }
 
-        // Get left tile
-        if (tile.getColumn() > 0) {
-            Tile leftTile = tiles[tile.getRow()][tile.getColumn() - 1];
-            if (leftTile.getNumber() == 0) {
-                if (!leftTile.getRevealed()) {
-                    revealSurroundingTiles(leftTile);
-                }
-            } else {
-                leftTile.setRevealed(true);
-            }
+        int revealed = board.revealAround(index);
+        boolean hitMine = false;
+        for (int i = 0; i < revealed; i++) {
+            int tile = board.getRevealedTile(i);
+            renderer.markChanged(tile);
+            hitMine |= board.hasMine(tile);
         }
 
-        // Get right tile
-        if (tile.getColumn() < cols - 1) {
-            Tile rightTile = tiles[tile.getRow()][tile.getColumn() + 1];
-            if (rightTile.getNumber() == 0) {
-                if (!rightTile.getRevealed()) {
-                    revealSurroundingTiles(rightTile);
-                }
-            } else {
-                rightTile.setRevealed(true);
-            }
+        if (hitMine) {
+            revealAllTiles();
+            gameEnded = true;
+            return;
         }
+        hiddenTiles -= revealed;
     }
 
     /**
-     * Refreshes a board when a player changes any tiles.
-     * Color tiles, adds a flag to flagged tiles.
+     * Finds the tile the player should click next, using only what the player can see.
+     * Before the first click every tile is safe, so the middle of the board is suggested.
+     * @return A safe tile, or the tile least likely to have a bomb if there isn't one.
      */
-    public void refreshBoard() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Tile tile = tiles[r][c];
-                if (tile.getRevealed()) {
-                    if (tile.getNumber() != 0) {
-                        tile.setText(switch(tile.getNumber()) {
-                            case 1 -> ":one:";
-                            case 2 -> ":two:";
-                            case 3 -> ":three:";
-                            case 4 -> ":four:";
-                            case 5 -> ":five:";
-                            case 6 -> ":six:";
-                            case 7 -> ":seven:";
-                            case 8 -> ":eight:";
-                            case 9 -> ":nine:";
-                            default -> tile.getText();
-                        });
-                    } else {
-                        tile.setText(":black_medium_square:");
-                    }
-                } else if (tile.getHasFlag()) {
-                    tile.setText(":triangular_flag_on_post:");
-                }
-            }
+    public Solver.Hint getHint() {
+        if (!gameStarted) {
+            return new Solver.Hint(rows / 2, cols / 2, 0);
         }
+
+        if (solver == null) {
+            solver = new Solver(board, mines);
+        }
+        return solver.hint();
     }
 
     /**
@@ -365,20 +370,7 @@ public class Game {
      * @return if all normal tiles have been revealed.
      */
     public boolean hasWin() {
-        boolean flag = true;
-        loop:
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Tile tile = tiles[r][c];
-                // Detect if a normal tile hasn't been revealed
-                if (!tile.hasBomb() && !tile.getRevealed()) {
-                    flag = false;
-                    break loop;
-                }
-            }
-        }
-
-        return flag;
+        return hiddenTiles == 0;
     }
 
     public boolean hasEnded() {
@@ -390,69 +382,153 @@ public class Game {
      * Bombs are labeled "B", other squares are labeled by their number.
      */
     public void revealAllTiles() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Tile tile = tiles[r][c];
-                tile.setRevealed(true);
-
-                if (tile.hasBomb()) {
-                    tile.setText(":b:");
-                    continue;
-                }
-
-                if (tile.getNumber() == 0) {
-                    tile.setText(":black_medium_square:");
-                    continue;
-                }
-
-                tile.setText(switch(tile.getNumber()) {
-                    case 1 -> ":one:";
-                    case 2 -> ":two:";
-                    case 3 -> ":three:";
-                    case 4 -> ":four:";
-                    case 5 -> ":five:";
-                    case 6 -> ":six:";
-                    case 7 -> ":seven:";
-                    case 8 -> ":eight:";
-                    case 9 -> ":nine:";
-                    default -> tile.getText();
-                });
-            }
+        board.revealAll();
+        renderer.markAllChanged();
+    }
+
+    /**
+     * Writes the game in a compact binary form that can be read by read().
+     * @param out Where the game is written to.
+     * @throws IOException If the game couldn't be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(mines);
+        out.writeLong(seed);
+        out.writeInt(day);
+        out.writeLong(channelId);
+        out.writeLong(messageId);
+        out.writeLong(startTime);
+        out.writeInt(moves);
+        out.writeBoolean(gameStarted);
+        out.writeBoolean(gameEnded);
+        board.write(out);
+    }
+
+    /**
+     * Reads a game written by write(). The game's message has to be set again once it is fetched from Discord.
+     * @param in Where the game is read from.
+     * @param version The version of the saved games, games saved by version 1 have no seed and by version 2 have no day.
+     * @return The game that was read.
+     * @throws IOException If the game couldn't be read.
+     */
+    public static Game read(DataInput in, int version) throws IOException {
+        int rows = in.readInt();
+        int cols = in.readInt();
+        int mines = in.readInt();
+        Game game = version >= 2 ? new Game(rows, cols, mines, in.readLong()) : new Game(rows, cols, mines);
+        if (version >= 3) {
+            game.day = in.readInt();
         }
+        game.channelId = in.readLong();
+        game.messageId = in.readLong();
+        game.startTime = in.readLong();
+        game.moves = in.readInt();
+        game.gameStarted = in.readBoolean();
+        game.gameEnded = in.readBoolean();
+        game.board.read(in);
+        game.countTiles();
+
+        return game;
     }
 
-    public String toString() {
-        String[] numbers = {":one:", ":two:", ":three:", ":four:", ":five:", ":six:", ":seven:", ":eight:", ":nine:"};
-        String[] letters = {
-                ":regional_indicator_a:",
-                ":regional_indicator_b:",
-                ":regional_indicator_c:",
-                ":regional_indicator_d:",
-                ":regional_indicator_e:",
-                ":regional_indicator_f:",
-                ":regional_indicator_g:",
-                ":regional_indicator_h:",
-                ":regional_indicator_i:"};
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(":black_medium_square: ");
-        for (int i = 0; i < rows; i++) {
-            sb.append(numbers[i]);
-            sb.append(" ");
+    /**
+     * Counts the hidden tiles and flags again from the board.
+     */
+    private void countTiles() {
+        flagsPlaced = 0;
+        hiddenTiles = rows * cols - mines;
+        for (int i = 0; i < board.size(); i++) {
+            if (board.hasFlag(i)) {
+                flagsPlaced++;
+            }
+            if (board.isRevealed(i) && !board.hasMine(i)) {
+                hiddenTiles--;
+            }
         }
+    }
+
+    /**
+     * @return If the board is too large to show as text in an embed, and is drawn as an image instead.
+     */
+    public boolean isDrawnAsImage() {
+        return !viewed && !BoardRenderer.fitsInEmbed(rows, cols);
+    }
 
-        sb.append("\n");
+    /**
+     * @return If the board is too large to show at once, and only the window moved by moveView() is shown.
+     */
+    public boolean isViewed() {
+        return viewed;
+    }
 
-        for (int r = 0 ; r < rows; r++) {
-            sb.append(letters[r]);
-            sb.append(" ");
-            for (int c = 0; c < cols; c++) {
-                sb.append(tiles[r][c].getText());
-                sb.append(" ");
-            }
-            sb.append("\n");
+    public int getViewRow() {
+        return renderer.getWindowRow();
+    }
+
+    public int getViewColumn() {
+        return renderer.getWindowColumn();
+    }
+
+    public int getViewRows() {
+        return renderer.getWindowRows();
+    }
+
+    public int getViewColumns() {
+        return renderer.getWindowColumns();
+    }
+
+    /**
+     * Moves the window of the board that is shown, keeping it within the board.
+     * Only the tiles in the window are rendered, so moving it costs the same on any size of board.
+     * @param row The top row of the window.
+     * @param col The left column of the window.
+     */
+    public void moveView(int row, int col) {
+        row = Math.max(0, Math.min(row, rows - renderer.getWindowRows()));
+        col = Math.max(0, Math.min(col, cols - renderer.getWindowColumns()));
+        renderer.setWindow(row, col);
+    }
+
+    /**
+     * Moves the window of the board that is shown so a tile is in its middle, or as close as the edges of the board allow.
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     */
+    public void centreView(int row, int col) {
+        moveView(row - renderer.getWindowRows() / 2, col - renderer.getWindowColumns() / 2);
+    }
+
+    public boolean isFollowing() {
+        return following;
+    }
+
+    /**
+     * @param following If the window shown should move to each tile the player plays.
+     */
+    public void setFollowing(boolean following) {
+        this.following = following;
+    }
+
+    private void follow(int row, int col) {
+        if (viewed && following) {
+            centreView(row, col);
         }
+    }
 
-        return sb.toString();
+    /**
+     * Draws the board as an image, redrawing only the tiles that changed since the last time.
+     * @return The board as a PNG file.
+     */
+    public byte[] renderImage() {
+        if (imageRenderer == null) {
+            imageRenderer = new ImageRenderer(board);
+        }
+        return imageRenderer.render();
+    }
+
+    public String toString() {
+        return renderer.render();
     }
 }
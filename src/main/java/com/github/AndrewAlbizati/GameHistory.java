@@ -0,0 +1,308 @@
+package com.github.AndrewAlbizati;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the result of every finished game in a memory-mapped file of fixed-size records.
+ * A single mapping can't be larger than 2 GB, so the records are mapped in segments of up to 16M records.
+ * Each player's stats and each server's leaderboards are kept in memory and updated as games finish,
+ * so they can be read without going through the history.
+ */
+public class GameHistory {
+    private static final int MAGIC = 0x48495354;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 40;
+    // The file grows by this many records at a time
+    private static final int RECORDS_PER_CHUNK = 1 << 16;
+    // 640 MB per mapping
+    private static final int RECORDS_PER_SEGMENT = 1 << 24;
+
+    public static final int LEADERBOARD_SIZE = 10;
+
+    private final FileChannel file;
+    private final int recordsPerSegment;
+    private final MappedByteBuffer header;
+    // Every segment but the last is full
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int capacity;
+    private int count;
+
+    private final Map<Long, PlayerStats> players = new ConcurrentHashMap<>();
+    private final Map<Long, Leaderboard[]> leaderboards = new ConcurrentHashMap<>();
+    // Daily challenges, by the day of the challenge
+    private final Map<Integer, Leaderboard> dailyLeaderboards = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Long>> dailyPlayers = new ConcurrentHashMap<>();
+
+    /**
+     * Opens the history file, creating it if it doesn't exist, and builds the stats and leaderboards from it.
+     * @param path The history file.
+     * @throws IOException If the file couldn't be opened or isn't a history file.
+     */
+    public GameHistory(Path path) throws IOException {
+        this(path, RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * @param path The history file.
+     * @param recordsPerSegment The most records in each mapping, smaller in tests so they don't need gigabytes of records.
+     * @throws IOException If the file couldn't be opened or isn't a history file.
+     */
+    GameHistory(Path path, int recordsPerSegment) throws IOException {
+        this.recordsPerSegment = recordsPerSegment;
+        file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = file.size() == 0;
+        if (!created && file.size() < HEADER_SIZE) {
+            throw new IOException(path + " is not a game history file");
+        }
+
+        header = file.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (created) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, 0);
+        } else if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a game history file");
+        }
+
+        count = header.getInt(4);
+        long records = Math.max((file.size() - HEADER_SIZE) / RECORD_SIZE, RECORDS_PER_CHUNK);
+        if (count < 0 || count > records || records > Integer.MAX_VALUE) {
+            throw new IOException(path + " is not a game history file");
+        }
+        map((int) records);
+
+        for (int i = 0; i < count; i++) {
+            MappedByteBuffer segment = segments.get(i / recordsPerSegment);
+            int position = i % recordsPerSegment * RECORD_SIZE;
+            index(segment.getLong(position), segment.getLong(position + 8), segment.get(position + 32), segment.get(position + 33) == 1,
+                    segment.getLong(position + 24), segment.getInt(position + 36));
+        }
+    }
+
+    /**
+     * Maps enough of the file for the given amount of records, growing the file if it is smaller.
+     * Full segments are mapped once, only the last segment is mapped again as it grows.
+     */
+    private void map(int records) throws IOException {
+        for (int i = segments.isEmpty() ? 0 : segments.size() - 1; i <= (records - 1) / recordsPerSegment; i++) {
+            int size = Math.min(records - i * recordsPerSegment, recordsPerSegment);
+            MappedByteBuffer segment = file.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + (long) i * recordsPerSegment * RECORD_SIZE, (long) size * RECORD_SIZE);
+            if (i < segments.size()) {
+                segments.set(i, segment);
+            } else {
+                segments.add(segment);
+            }
+        }
+        capacity = records;
+    }
+
+    /**
+     * Adds a finished game to the history.
+     * @param userId The ID of the player.
+     * @param serverId The ID of the server the game was played in, or 0 if it wasn't played in a server.
+     * @param difficulty The difficulty of the game, or null if it had a custom size.
+     * @param won If the player won the game.
+     * @param duration How long the game took, in milliseconds.
+     * @param day The day of the daily challenge the game was, as days since 1970-01-01, or 0 if it wasn't one.
+     * @throws IOException If the history file couldn't be grown, or already has Integer.MAX_VALUE records.
+     */
+    public synchronized void record(long userId, long serverId, Difficulty difficulty, boolean won, long duration, int day) throws IOException {
+        if (count == Integer.MAX_VALUE) {
+            throw new IOException("The game history is full");
+        }
+        if (count == capacity) {
+            map((int) Math.min((long) count + RECORDS_PER_CHUNK, Integer.MAX_VALUE));
+        }
+
+        MappedByteBuffer segment = segments.get(count / recordsPerSegment);
+        int position = count % recordsPerSegment * RECORD_SIZE;
+        byte difficultyId = (byte) (difficulty == null ? -1 : difficulty.ordinal());
+        segment.putLong(position, userId);
+        segment.putLong(position + 8, serverId);
+        segment.putLong(position + 16, System.currentTimeMillis());
+        segment.putLong(position + 24, duration);
+        segment.put(position + 32, difficultyId);
+        segment.put(position + 33, (byte) (won ? 1 : 0));
+        segment.putInt(position + 36, day);
+
+        // The count is written last, so a record is only part of the history once it is complete
+        count++;
+        header.putInt(4, count);
+
+        index(userId, serverId, difficultyId, won, duration, day);
+    }
+
+    /**
+     * Adds a game to the player's stats and the server's leaderboard, or the day's leaderboard if it was a daily challenge.
+     */
+    private void index(long userId, long serverId, byte difficultyId, boolean won, long duration, int day) {
+        // Daily challenges count as wins and losses, but are only timed against each other
+        PlayerStats stats = players.computeIfAbsent(userId, id -> new PlayerStats());
+        stats.add(day == 0 ? difficultyId : (byte) -1, won, duration);
+
+        if (day != 0) {
+            dailyPlayers.computeIfAbsent(day, d -> ConcurrentHashMap.newKeySet()).add(userId);
+            if (won) {
+                dailyLeaderboards.computeIfAbsent(day, d -> new Leaderboard()).add(userId, duration);
+            }
+            return;
+        }
+
+        if (won && difficultyId >= 0) {
+            Leaderboard[] serverLeaderboards = leaderboards.computeIfAbsent(serverId, id -> {
+                Leaderboard[] created = new Leaderboard[Difficulty.values().length];
+                for (int i = 0; i < created.length; i++) {
+                    created[i] = new Leaderboard();
+                }
+                return created;
+            });
+            serverLeaderboards[difficultyId].add(userId, duration);
+        }
+    }
+
+    /**
+     * @param userId The ID of the player.
+     * @return The stats of the player, or null if they haven't finished a game.
+     */
+    public PlayerStats getStats(long userId) {
+        return players.get(userId);
+    }
+
+    /**
+     * @param serverId The ID of the server.
+     * @param difficulty The difficulty of the leaderboard.
+     * @return The fastest wins in the server, one per player, fastest first.
+     */
+    public List<Leaderboard.Entry> getLeaderboard(long serverId, Difficulty difficulty) {
+        Leaderboard[] serverLeaderboards = leaderboards.get(serverId);
+        if (serverLeaderboards == null) {
+            return List.of();
+        }
+        return serverLeaderboards[difficulty.ordinal()].getEntries();
+    }
+
+    /**
+     * @param day The day of the daily challenge, as days since 1970-01-01.
+     * @return The fastest wins of the day's challenge, one per player, fastest first.
+     */
+    public List<Leaderboard.Entry> getDailyLeaderboard(int day) {
+        Leaderboard leaderboard = dailyLeaderboards.get(day);
+        return leaderboard == null ? List.of() : leaderboard.getEntries();
+    }
+
+    /**
+     * @param userId The ID of the player.
+     * @param day The day of the daily challenge, as days since 1970-01-01.
+     * @return If the player has finished the day's challenge, whether they won or lost.
+     */
+    public boolean hasPlayedDaily(long userId, int day) {
+        Set<Long> players = dailyPlayers.get(day);
+        return players != null && players.contains(userId);
+    }
+
+    /**
+     * Writes the records and the count to disk, so they aren't lost if the machine goes down.
+     * Records are written before the count, so the count on disk never includes a record that isn't there yet.
+     * The system may also write them on its own at any time, so a crash between calls can still leave a count
+     * ahead of its records.
+     */
+    public synchronized void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * The wins, losses, and best times of a player.
+     */
+    public static class PlayerStats {
+        private int wins;
+        private int losses;
+        private final long[] bestTimes = new long[Difficulty.values().length];
+
+        private synchronized void add(byte difficultyId, boolean won, long duration) {
+            if (!won) {
+                losses++;
+                return;
+            }
+
+            wins++;
+            if (difficultyId >= 0 && (bestTimes[difficultyId] == 0 || duration < bestTimes[difficultyId])) {
+                bestTimes[difficultyId] = duration;
+            }
+        }
+
+        public synchronized int getWins() {
+            return wins;
+        }
+
+        public synchronized int getLosses() {
+            return losses;
+        }
+
+        /**
+         * @param difficulty The difficulty of the games.
+         * @return The player's fastest win, in milliseconds, or 0 if they haven't won a game of the difficulty.
+         */
+        public synchronized long getBestTime(Difficulty difficulty) {
+            return bestTimes[difficulty.ordinal()];
+        }
+    }
+
+    /**
+     * The fastest wins of one difficulty in one server, keeping only the best time of each player.
+     */
+    public static class Leaderboard {
+        private final Entry[] entries = new Entry[LEADERBOARD_SIZE];
+        private int size;
+
+        private synchronized void add(long userId, long duration) {
+            // Remove the player's slower time
+            for (int i = 0; i < size; i++) {
+                if (entries[i].userId == userId) {
+                    if (entries[i].time <= duration) {
+                        return;
+                    }
+                    System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+
+            if (size == entries.length && entries[size - 1].time <= duration) {
+                return;
+            }
+
+            // Insert in order of time
+            int i = Math.min(size, entries.length - 1);
+            while (i > 0 && entries[i - 1].time > duration) {
+                entries[i] = entries[i - 1];
+                i--;
+            }
+            entries[i] = new Entry(userId, duration);
+            size = Math.min(size + 1, entries.length);
+        }
+
+        public synchronized List<Entry> getEntries() {
+            return new ArrayList<>(Arrays.asList(entries).subList(0, size));
+        }
+
+        public record Entry(long userId, long time) {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.AndrewAlbizati;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs the commands for one game one at a time, in the order they were submitted.
+ * Commands are queued without locking and run on a shared thread pool, so different games still run in parallel.
+ */
+public class GameMailbox implements Executor {
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Executor executor;
+
+    public GameMailbox() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor The thread pool that commands are run on.
+     */
+    public GameMailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a command to run after every command submitted before it.
+     * @param command The command to run.
+     * @param <T> The type of the command's result.
+     * @return A future that completes with the command's result.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> command) {
+        return CompletableFuture.supplyAsync(command, this);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        commands.add(command);
+        schedule();
+    }
+
+    /**
+     * Starts draining the queue on the thread pool, unless it is already being drained.
+     */
+    private void schedule() {
+        if (running.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                // A command that fails doesn't stop the commands after it
+                e.printStackTrace();
+            }
+        }
+        running.set(false);
+
+        // A command may have been queued after the last poll but before running was cleared
+        if (!commands.isEmpty()) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.AndrewAlbizati;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps track of the game each player is playing. Safe to use from multiple threads.
+ * Games that haven't been played for a while are removed by a scheduled task, and the amount of games is capped.
+ */
+public class GameRegistry {
+    private final ConcurrentHashMap<Long, Game> games = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final long idleTimeout;
+    private final int maxGames;
+
+    private final AtomicInteger liveGames = new AtomicInteger();
+    private final LongAdder evictedGames = new LongAdder();
+    private final LongAdder completedGames = new LongAdder();
+
+    private volatile BiConsumer<Long, Game> removalListener = (userId, game) -> {};
+
+    /**
+     * @param idleTimeout How long a game can go without a move before it is removed, in milliseconds.
+     * @param maxGames The most games that can be played at the same time.
+     */
+    public GameRegistry(long idleTimeout, int maxGames) {
+        this.idleTimeout = idleTimeout;
+        this.maxGames = maxGames;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a new game for a player.
+     * @param userId The ID of the player.
+     * @param game The game to add.
+     * @throws IllegalStateException If the player already has a game, or the maximum amount of games are being played.
+     */
+    public void create(long userId, Game game) {
+        // Only counted if there is room, so the count never goes over the cap, even for a moment
+        if (liveGames.getAndUpdate(live -> live < maxGames ? live + 1 : live) >= maxGames) {
+            throw new IllegalStateException("Too many games are being played right now. Please try again later.");
+        }
+
+        if (games.putIfAbsent(userId, game) != null) {
+            liveGames.decrementAndGet();
+            throw new IllegalStateException("Please finish your previous game before starting a new one.");
+        }
+
+        game.updateLastActivity();
+        scheduleEviction(userId, game, idleTimeout);
+    }
+
+    /**
+     * Sets what is done with every game that is removed, whether it finished or was idle for too long.
+     * @param removalListener Called with the ID of the player and their game.
+     */
+    public void setRemovalListener(BiConsumer<Long, Game> removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    /**
+     * Runs an action for every game that is being played.
+     * @param action Called with the ID of each player and their game.
+     */
+    public void forEach(BiConsumer<Long, Game> action) {
+        games.forEach(action);
+    }
+
+    /**
+     * Gets the game a player is playing and marks it as active.
+     * @param userId The ID of the player.
+     * @return The player's game, or null if they aren't playing.
+     */
+    public Game get(long userId) {
+        Game game = games.get(userId);
+        if (game != null) {
+            game.updateLastActivity();
+        }
+        return game;
+    }
+
+    /**
+     * Removes a game that has been won or lost.
+     * @param userId The ID of the player.
+     * @param game The game that has finished.
+     */
+    public void complete(long userId, Game game) {
+        if (games.remove(userId, game)) {
+            liveGames.decrementAndGet();
+            completedGames.increment();
+            removalListener.accept(userId, game);
+        }
+    }
+
+    /**
+     * Removes a game that couldn't be set up, without counting it as finished.
+     * @param userId The ID of the player.
+     * @param game The game to remove.
+     */
+    public void remove(long userId, Game game) {
+        if (games.remove(userId, game)) {
+            liveGames.decrementAndGet();
+        }
+    }
+
+    /**
+     * Checks a game once it could have been idle for long enough.
+     * The game is removed if it is still idle, otherwise the check is scheduled again for when it could next expire.
+     */
+    private void scheduleEviction(long userId, Game game, long delay) {
+        scheduler.schedule(() -> {
+            if (games.get(userId) != game) {
+                return; // Game already finished
+            }
+
+            long idle = System.currentTimeMillis() - game.getLastActivity();
+            if (idle < idleTimeout) {
+                scheduleEviction(userId, game, idleTimeout - idle);
+            } else if (games.remove(userId, game)) {
+                liveGames.decrementAndGet();
+                evictedGames.increment();
+                removalListener.accept(userId, game);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public int getLiveGames() {
+        return liveGames.get();
+    }
+
+    public long getEvictedGames() {
+        return evictedGames.sum();
+    }
+
+    public long getCompletedGames() {
+        return completedGames.sum();
+    }
+}
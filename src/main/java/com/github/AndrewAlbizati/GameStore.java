@@ -0,0 +1,404 @@
+package com.github.AndrewAlbizati;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Saves games in progress to disk so that they survive the bot restarting.
+ * Every move is appended to a move log, and the log is regularly compacted into a snapshot of every live game.
+ * Move logs are numbered, a snapshot contains every move from the logs numbered before it.
+ */
+public class GameStore {
+    private static final int MAGIC = 0x4D494E45;
+    // Version 2 added the seed of each game and a header to each move log, version 3 added the day of daily challenges
+    private static final int VERSION = 3;
+
+    // Types of records in a move log
+    private static final byte SAVE = 1;
+    private static final byte MOVE = 2;
+    private static final byte END = 3;
+
+    public static final byte CLICK = 1;
+    public static final byte FLAG = 2;
+    public static final byte CHORD = 3;
+
+    // Added to the names of files that couldn't be loaded
+    private static final String UNREADABLE = ".unreadable";
+
+    private final Path directory;
+    private final Path snapshot;
+    private final ScheduledExecutorService scheduler;
+
+    private DataOutputStream log;
+    private int generation;
+
+    /**
+     * @param directory The folder that snapshots and move logs are stored in.
+     */
+    public GameStore(Path directory) {
+        this.directory = directory;
+        this.snapshot = directory.resolve("games.dat");
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the latest snapshot and replays every move logged after it, then starts a new move log.
+     * If the saved games can't be read, their files are renamed so they are kept but not read again, and games
+     * started from now on are still saved in a new move log.
+     * @return The games that were being played, by the ID of their player.
+     * @throws IOException If the saved games couldn't be read.
+     */
+    public synchronized Map<Long, Game> load() throws IOException {
+        Files.createDirectories(directory);
+        try {
+            return read();
+        } catch (IOException | RuntimeException e) {
+            setAside();
+            throw new IOException("Saved games couldn't be read and were renamed to end in " + UNREADABLE, e);
+        } finally {
+            // New moves go into a new log, so they are never added after a record that was cut off
+            List<Integer> logGenerations = getLogGenerations();
+            if (!logGenerations.isEmpty()) {
+                generation = Math.max(generation, logGenerations.get(logGenerations.size() - 1) + 1);
+            }
+            log = openLog(generation);
+        }
+    }
+
+    private Map<Long, Game> read() throws IOException {
+        Map<Long, Game> games = new HashMap<>();
+
+        int snapshotGeneration = 0;
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(snapshot + " is not a saved games file");
+                }
+                int version = in.readInt();
+
+                snapshotGeneration = in.readInt();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    games.put(in.readLong(), Game.read(in, version));
+                }
+            }
+        }
+
+        generation = snapshotGeneration;
+        for (int logGeneration : getLogGenerations()) {
+            if (logGeneration < snapshotGeneration) {
+                continue;
+            }
+
+            replay(getLog(logGeneration), games);
+            generation = Math.max(generation, logGeneration + 1);
+        }
+        return games;
+    }
+
+    /**
+     * Renames the snapshot and every move log, so they are neither loaded nor deleted by compaction.
+     */
+    private void setAside() throws IOException {
+        if (Files.exists(snapshot)) {
+            Files.move(snapshot, directory.resolve(snapshot.getFileName() + UNREADABLE), StandardCopyOption.REPLACE_EXISTING);
+        }
+        for (int logGeneration : getLogGenerations()) {
+            Path file = getLog(logGeneration);
+            Files.move(file, directory.resolve(file.getFileName() + UNREADABLE), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Replays the records in a move log. A record that was cut off by the bot stopping ends the log.
+     */
+    private static void replay(Path file, Map<Long, Game> games) throws IOException {
+        if (Files.size(file) == 0) {
+            return;
+        }
+
+        BufferedInputStream buffered = new BufferedInputStream(Files.newInputStream(file));
+        try (DataInputStream in = new DataInputStream(buffered)) {
+            // Logs written before version 2 have no header and start with their first record
+            int version = 1;
+            buffered.mark(8);
+            if (in.readInt() == MAGIC) {
+                version = in.readInt();
+            } else {
+                buffered.reset();
+            }
+
+            while (true) {
+                int type = in.read();
+                if (type == -1) {
+                    break;
+                }
+
+                long userId = in.readLong();
+                switch (type) {
+                    case SAVE -> {
+                        Game game = Game.read(in, version);
+                        Game saved = games.get(userId);
+                        // The snapshot can already have a later state of the same game
+                        if (saved == null || saved.getStartTime() != game.getStartTime() || saved.getMoves() < game.getMoves()) {
+                            games.put(userId, game);
+                        }
+                    }
+
+                    case MOVE -> {
+                        long startTime = in.readLong();
+                        int move = in.readInt();
+                        byte action = in.readByte();
+                        int row = in.readInt();
+                        int col = in.readInt();
+
+                        Game game = games.get(userId);
+                        if (game == null || game.getStartTime() != startTime || game.getMoves() >= move) {
+                            continue;
+                        }
+
+                        if (action == CLICK) {
+                            game.onClick(row, col);
+                        } else if (action == CHORD) {
+                            game.chord(row, col);
+                        } else {
+                            game.addFlag(row, col);
+                        }
+                    }
+
+                    case END -> {
+                        long startTime = in.readLong();
+                        Game game = games.get(userId);
+                        if (game != null && game.getStartTime() == startTime) {
+                            games.remove(userId);
+                        }
+                    }
+
+                    default -> throw new IOException("Unknown record in " + file);
+                }
+            }
+        } catch (EOFException e) {
+            System.out.println("Ignoring incomplete record at the end of " + file);
+        }
+    }
+
+    /**
+     * Compacts the move logs into a snapshot every so often.
+     * @param games The games that are being played.
+     * @param period How often to compact, in minutes.
+     * @param afterSnapshot Run after each snapshot, whether it could be written or not.
+     */
+    public void startCompaction(GameRegistry games, long period, Runnable afterSnapshot) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact(games);
+            } catch (IOException | UncheckedIOException e) {
+                e.printStackTrace();
+            }
+
+            // An exception would stop the snapshots from being scheduled again
+            try {
+                afterSnapshot.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, period, period, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Saves the complete state of a game, used when a game is created and when its bombs are placed.
+     * @param userId The ID of the player.
+     * @param game The game to save.
+     */
+    public void save(long userId, Game game) {
+        append(out -> {
+            out.writeByte(SAVE);
+            out.writeLong(userId);
+            game.write(out);
+        });
+    }
+
+    /**
+     * Logs a move that has just been made in a game.
+     * @param userId The ID of the player.
+     * @param game The game the move was made in.
+     * @param action CLICK, FLAG, or CHORD.
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     */
+    public void logMove(long userId, Game game, byte action, int row, int col) {
+        append(out -> {
+            out.writeByte(MOVE);
+            out.writeLong(userId);
+            out.writeLong(game.getStartTime());
+            out.writeInt(game.getMoves());
+            out.writeByte(action);
+            out.writeInt(row);
+            out.writeInt(col);
+        });
+    }
+
+    /**
+     * Logs that a game has finished, so it isn't loaded again.
+     * @param userId The ID of the player.
+     * @param game The game that finished.
+     */
+    public void remove(long userId, Game game) {
+        append(out -> {
+            out.writeByte(END);
+            out.writeLong(userId);
+            out.writeLong(game.getStartTime());
+        });
+    }
+
+    /**
+     * Adds a record to the move log. Games are still played when they can't be saved, so errors are only printed.
+     * After an error the log is switched, so no record is added after one that was cut off.
+     */
+    private synchronized void append(Record record) {
+        try {
+            if (log == null) {
+                log = openLog(++generation);
+            }
+            record.write(log);
+            log.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeLog();
+        }
+    }
+
+    private void closeLog() {
+        if (log == null) {
+            return;
+        }
+
+        try {
+            log.close();
+        } catch (IOException e) {
+            // The log is switched either way
+        }
+        log = null;
+    }
+
+    /**
+     * Writes every live game into a new snapshot and deletes the move logs it replaces.
+     * The move log is switched first, then every game is saved from its own mailbox so it can't change while being written.
+     * Moves logged while the snapshot is being written are skipped when replayed, because the games remember their move count.
+     * @param games The games that are being played.
+     * @throws IOException If the snapshot couldn't be written.
+     */
+    public void compact(GameRegistry games) throws IOException {
+        int snapshotGeneration;
+        synchronized (this) {
+            closeLog();
+            snapshotGeneration = ++generation;
+            log = openLog(generation);
+        }
+
+        List<CompletableFuture<byte[]>> saved = new ArrayList<>();
+        games.forEach((userId, game) -> saved.add(game.getMailbox().submit(() -> {
+            // Games whose message hasn't been sent yet are saved once it has been
+            if (game.getMessageId() == 0) {
+                return null;
+            }
+
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeLong(userId);
+                game.write(out);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        })));
+
+        List<byte[]> records = new ArrayList<>();
+        for (CompletableFuture<byte[]> future : saved) {
+            byte[] record = future.join();
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        Path temporary = directory.resolve("games.dat.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshotGeneration);
+            out.writeInt(records.size());
+            for (byte[] record : records) {
+                out.write(record);
+            }
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (int logGeneration : getLogGenerations()) {
+            if (logGeneration < snapshotGeneration) {
+                Files.delete(getLog(logGeneration));
+            }
+        }
+    }
+
+    private Path getLog(int logGeneration) {
+        return directory.resolve("moves-" + logGeneration + ".log");
+    }
+
+    private DataOutputStream openLog(int logGeneration) throws IOException {
+        Path file = getLog(logGeneration);
+        boolean created = Files.notExists(file) || Files.size(file) == 0;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (created) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.flush();
+        }
+        return out;
+    }
+
+    /**
+     * @return The numbers of every move log in the folder, in ascending order.
+     */
+    private List<Integer> getLogGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.matches("moves-\\d+\\.log"))
+                    .map(name -> Integer.parseInt(name.substring(6, name.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Writes one record to the move log.
+     */
+    private interface Record {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
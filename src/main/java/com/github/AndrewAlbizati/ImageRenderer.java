@@ -0,0 +1,337 @@
+package com.github.AndrewAlbizati;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Draws a board as a PNG image, used for boards whose emoji text doesn't fit in an embed.
+ * Tiles are copied from a sprite atlas that is drawn once, into an image that is kept for the whole game.
+ * Only tiles that look different from the last frame are copied again, and the image uses a 16 color palette
+ * so it takes half a byte per pixel and encodes to a small PNG.
+ * The PNG is written here instead of by ImageIO, since the rows of the image are already packed the way PNG stores them
+ * and ImageIO reads them one pixel at a time.
+ */
+public class ImageRenderer {
+    public static final int TILE_SIZE = 16;
+    // Room for the row letters on the left and the column numbers on top
+    private static final int LEFT_MARGIN = 20;
+    private static final int TOP_MARGIN = 14;
+
+    // Deflate level of the PNG, from 0 (smallest file) to 1 (fastest)
+    public static final float DEFAULT_QUALITY = 0.5f;
+
+    // Colors of the palette
+    private static final Color[] COLORS = {
+            new Color(0xC0C0C0), // Background and hidden tiles
+            Color.WHITE,
+            new Color(0x808080),
+            Color.BLACK,
+            new Color(0xD8D8D8), // Revealed tiles
+            new Color(0x0000FF),
+            new Color(0x008000),
+            new Color(0xFF0000),
+            new Color(0x000080),
+            new Color(0x800000),
+            new Color(0x008080),
+            new Color(0x404040)
+    };
+    private static final Color[] NUMBER_COLORS = {null, COLORS[5], COLORS[6], COLORS[7], COLORS[8], COLORS[9], COLORS[10], COLORS[3], COLORS[2]};
+    private static final IndexColorModel PALETTE = createPalette();
+
+    // Sprites in the atlas
+    private static final int HIDDEN = 0;
+    private static final int EMPTY = 1;
+    // Sprites 2 to 9 are the numbers 1 to 8
+    private static final int FLAG = 10;
+    private static final int BOMB = 11;
+    private static final int SPRITES = 12;
+
+    private static final Raster[] ATLAS = createAtlas();
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PLTE = "PLTE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    // Deflaters hold native memory until they are ended, so each thread keeps one per level instead of one per game
+    private static final ThreadLocal<Deflater[]> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater[10]);
+
+    private final Board board;
+    private final BufferedImage image;
+    // The sprite drawn on each tile in the last frame, -1 before the first frame
+    private final byte[] drawn;
+
+    // Every row of the image with the filter byte PNG puts in front of it
+    private final byte[] scanlines;
+    private final int level;
+    private final CRC32 crc = new CRC32();
+    // The header and palette never change, the image data and the end are added after them
+    private final byte[] header;
+    private byte[] output;
+
+    public ImageRenderer(Board board) {
+        this(board, DEFAULT_QUALITY);
+    }
+
+    /**
+     * @param board The board to draw.
+     * @param quality The deflate level of the PNG, from 0 (smallest file) to 1 (fastest).
+     */
+    public ImageRenderer(Board board, float quality) {
+        if (!(quality >= 0 && quality <= 1)) {
+            throw new IllegalArgumentException("The quality of an image must be from 0 to 1");
+        }
+        this.board = board;
+
+        image = new BufferedImage(LEFT_MARGIN + board.getColumns() * TILE_SIZE, TOP_MARGIN + board.getRows() * TILE_SIZE,
+                BufferedImage.TYPE_BYTE_BINARY, PALETTE);
+        drawn = new byte[board.size()];
+        Arrays.fill(drawn, (byte) -1);
+
+        // Same levels as ImageIO's PNG writer, no filters are used since they don't help on a palette
+        level = Math.round(9 * (1 - quality));
+        scanlines = new byte[image.getHeight() * (getStride() + 1)];
+
+        drawLabels();
+
+        output = new byte[64 + COLORS.length * 3];
+        int length = SIGNATURE.length;
+        System.arraycopy(SIGNATURE, 0, output, 0, length);
+
+        byte[] size = new byte[13];
+        writeInt(size, 0, image.getWidth());
+        writeInt(size, 4, image.getHeight());
+        size[8] = 4; // Bits per pixel
+        size[9] = 3; // Palette
+        length = writeChunk(length, IHDR, size, size.length);
+
+        byte[] palette = new byte[COLORS.length * 3];
+        for (int i = 0; i < COLORS.length; i++) {
+            palette[i * 3] = (byte) COLORS[i].getRed();
+            palette[i * 3 + 1] = (byte) COLORS[i].getGreen();
+            palette[i * 3 + 2] = (byte) COLORS[i].getBlue();
+        }
+        length = writeChunk(length, PLTE, palette, palette.length);
+        this.header = Arrays.copyOf(output, length);
+    }
+
+    private static IndexColorModel createPalette() {
+        byte[] r = new byte[16];
+        byte[] g = new byte[16];
+        byte[] b = new byte[16];
+        for (int i = 0; i < COLORS.length; i++) {
+            r[i] = (byte) COLORS[i].getRed();
+            g[i] = (byte) COLORS[i].getGreen();
+            b[i] = (byte) COLORS[i].getBlue();
+        }
+        return new IndexColorModel(4, 16, r, g, b);
+    }
+
+    /**
+     * Draws every sprite once, side by side.
+     * @return The sprites, each as a raster that can be copied straight into a board's image.
+     */
+    private static Raster[] createAtlas() {
+        BufferedImage atlas = new BufferedImage(SPRITES * TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_BINARY, PALETTE);
+        Graphics2D g = atlas.createGraphics();
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
+        FontMetrics metrics = g.getFontMetrics();
+
+        for (int sprite = 0; sprite < SPRITES; sprite++) {
+            int x = sprite * TILE_SIZE;
+            if (sprite == HIDDEN || sprite == FLAG) {
+                // Raised tile
+                g.setColor(COLORS[0]);
+                g.fillRect(x, 0, TILE_SIZE, TILE_SIZE);
+                g.setColor(Color.WHITE);
+                g.fillRect(x, 0, TILE_SIZE - 1, 2);
+                g.fillRect(x, 0, 2, TILE_SIZE - 1);
+                g.setColor(COLORS[2]);
+                g.fillRect(x + 1, TILE_SIZE - 2, TILE_SIZE - 1, 2);
+                g.fillRect(x + TILE_SIZE - 2, 1, 2, TILE_SIZE - 1);
+            } else {
+                // Flat tile
+                g.setColor(COLORS[4]);
+                g.fillRect(x, 0, TILE_SIZE, TILE_SIZE);
+                g.setColor(COLORS[2]);
+                g.drawLine(x, 0, x + TILE_SIZE - 1, 0);
+                g.drawLine(x, 0, x, TILE_SIZE - 1);
+            }
+
+            if (sprite == FLAG) {
+                g.setColor(Color.BLACK);
+                g.fillRect(x + 7, 3, 2, 9);
+                g.fillRect(x + 4, 11, 8, 2);
+                g.setColor(COLORS[7]);
+                g.fillPolygon(new int[] {x + 9, x + 9, x + 3}, new int[] {3, 9, 6}, 3);
+            } else if (sprite == BOMB) {
+                g.setColor(COLORS[7]);
+                g.fillRect(x + 1, 1, TILE_SIZE - 1, TILE_SIZE - 1);
+                g.setColor(Color.BLACK);
+                g.fillOval(x + 4, 4, 8, 8);
+                g.drawLine(x + 8, 2, x + 8, 13);
+                g.drawLine(x + 2, 8, x + 13, 8);
+                g.setColor(Color.WHITE);
+                g.fillRect(x + 6, 6, 2, 2);
+            } else if (sprite > EMPTY) {
+                String number = String.valueOf(sprite - 1);
+                g.setColor(NUMBER_COLORS[sprite - 1]);
+                g.drawString(number, x + (TILE_SIZE - metrics.stringWidth(number)) / 2 + 1, (TILE_SIZE + metrics.getAscent()) / 2 - 1);
+            }
+        }
+        g.dispose();
+
+        Raster[] sprites = new Raster[SPRITES];
+        for (int sprite = 0; sprite < SPRITES; sprite++) {
+            sprites[sprite] = atlas.getData(new Rectangle(sprite * TILE_SIZE, 0, TILE_SIZE, TILE_SIZE))
+                    .createTranslatedChild(0, 0);
+        }
+        return sprites;
+    }
+
+    /**
+     * Draws the row letters and column numbers, which never change.
+     */
+    private void drawLabels() {
+        Graphics2D g = image.createGraphics();
+        g.setColor(COLORS[0]);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 9));
+        FontMetrics metrics = g.getFontMetrics();
+
+        for (int col = 0; col < board.getColumns(); col++) {
+            String label = String.valueOf(col + 1);
+            g.drawString(label, LEFT_MARGIN + col * TILE_SIZE + (TILE_SIZE - metrics.stringWidth(label)) / 2, TOP_MARGIN - 3);
+        }
+        for (int row = 0; row < board.getRows(); row++) {
+            String label = Position.getRowName(row);
+            g.drawString(label, LEFT_MARGIN - 2 - metrics.stringWidth(label), TOP_MARGIN + row * TILE_SIZE + (TILE_SIZE + metrics.getAscent()) / 2 - 1);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Draws the tiles that changed since the last frame.
+     * @return The image of the board, which is drawn over by the next call.
+     */
+    public BufferedImage draw() {
+        WritableRaster raster = image.getRaster();
+        for (int index = 0; index < drawn.length; index++) {
+            int sprite = getSprite(index);
+            if (drawn[index] == sprite) {
+                continue;
+            }
+
+            drawn[index] = (byte) sprite;
+            raster.setRect(LEFT_MARGIN + board.getColumn(index) * TILE_SIZE, TOP_MARGIN + board.getRow(index) * TILE_SIZE, ATLAS[sprite]);
+        }
+        return image;
+    }
+
+    /**
+     * Draws the tiles that changed since the last frame and encodes the board.
+     * @return The board as a PNG file.
+     */
+    public byte[] render() {
+        draw();
+
+        // Rows are packed two pixels to a byte, the same as in the image
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int stride = getStride();
+        for (int y = 0, offset = 0; y < image.getHeight(); y++, offset += stride + 1) {
+            System.arraycopy(pixels, y * stride, scanlines, offset + 1, stride);
+        }
+
+        Deflater[] deflaters = DEFLATERS.get();
+        if (deflaters[level] == null) {
+            deflaters[level] = new Deflater(level);
+        }
+        Deflater deflater = deflaters[level];
+        deflater.reset();
+        deflater.setInput(scanlines);
+        deflater.finish();
+        // Room for the header, the length and type of the image data, and the end
+        int length = header.length + 8;
+        System.arraycopy(header, 0, output, 0, header.length);
+        while (!deflater.finished()) {
+            if (length + 16 >= output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            length += deflater.deflate(output, length, output.length - length - 16);
+        }
+
+        // The image data was compressed in place, its length and type go in front of it
+        int dataLength = length - header.length - 8;
+        writeInt(output, header.length, dataLength);
+        System.arraycopy(IDAT, 0, output, header.length + 4, 4);
+        crc.reset();
+        crc.update(output, header.length + 4, dataLength + 4);
+        writeInt(output, length, (int) crc.getValue());
+        length += 4;
+
+        length = writeChunk(length, IEND, output, 0);
+        return Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Adds a chunk to the output.
+     * @param length Where the chunk goes in the output.
+     * @param type The type of the chunk.
+     * @param data The data of the chunk.
+     * @param dataLength The amount of bytes of data.
+     * @return Where the next chunk goes.
+     */
+    private int writeChunk(int length, byte[] type, byte[] data, int dataLength) {
+        if (length + dataLength + 12 > output.length) {
+            output = Arrays.copyOf(output, Math.max(output.length * 2, length + dataLength + 12));
+        }
+
+        writeInt(output, length, dataLength);
+        System.arraycopy(type, 0, output, length + 4, 4);
+        System.arraycopy(data, 0, output, length + 8, dataLength);
+        crc.reset();
+        crc.update(output, length + 4, dataLength + 4);
+        writeInt(output, length + 8 + dataLength, (int) crc.getValue());
+        return length + dataLength + 12;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * @return The amount of bytes in each row of the image.
+     */
+    private int getStride() {
+        return (image.getWidth() + 1) / 2;
+    }
+
+    /**
+     * @return The sprite that shows a tile in its current state.
+     */
+    private int getSprite(int index) {
+        if (board.isRevealed(index)) {
+            if (board.hasMine(index)) {
+                return BOMB;
+            }
+
+            int number = board.getNumber(index);
+            return number == 0 ? EMPTY : number + 1;
+        }
+
+        return board.hasFlag(index) ? FLAG : HIDDEN;
+    }
+}
@@ -4,11 +4,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Properties;
 
 public class Main {
     public static void main(String[] args) {
         String token;
+        long idleTimeout;
+        int maxGames;
+        int metricsPort;
 
         // Get token from config.properties
         try {
@@ -34,14 +38,44 @@ public class Main {
                 throw new NullPointerException("Please add the bot's token to config.properties");
             }
 
+            // Games are removed after 30 idle minutes by default
+            idleTimeout = Long.parseLong(prop.getProperty("idleTimeoutMinutes", "30")) * 60 * 1000;
+            maxGames = Integer.parseInt(prop.getProperty("maxGames", "10000"));
+            // Metrics are served on this port of the local machine, 0 turns them off
+            metricsPort = Integer.parseInt(prop.getProperty("metricsPort", "9400"));
+
         // Stop program if an error is raised (bot token not found)
-        } catch (IOException | NullPointerException e) {
+        } catch (IOException | NullPointerException | NumberFormatException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        // Open the history of finished games
+        GameHistory history;
+        try {
+            history = new GameHistory(Path.of("history.dat"));
+        } catch (IOException e) {
             e.printStackTrace();
             return;
         }
+        // Write the history to disk when the bot is stopped, it is also written with every snapshot
+        Runtime.getRuntime().addShutdownHook(new Thread(history::force, "history-shutdown"));
 
         // Create a new bot
-        Bot bot = new Bot(token);
+        // Keep 4 no-guess boards of each difficulty ready, and give up looking for one after 5 seconds
+        NoGuessGenerator generator = new NoGuessGenerator(4, 5000);
+
+        Metrics metrics = new Metrics();
+        if (metricsPort != 0) {
+            try {
+                metrics.startServer(metricsPort);
+            } catch (IOException e) {
+                // The bot still works without its metrics
+                e.printStackTrace();
+            }
+        }
+
+        Bot bot = new Bot(token, new GameRegistry(idleTimeout, maxGames), new GameStore(Path.of("games")), history, generator, metrics);
         bot.start();
     }
 }
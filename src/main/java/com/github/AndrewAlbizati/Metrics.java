@@ -0,0 +1,284 @@
+package com.github.AndrewAlbizati;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Counters, gauges, and latency histograms of the bot, served over HTTP in the Prometheus text format.
+ * Metrics are created once at startup. Recording a value only adds to LongAdders, so it doesn't allocate or block
+ * the threads handling commands, and the values are only added up when the metrics are read.
+ */
+public class Metrics {
+    // Upper bounds of the histogram buckets, in nanoseconds
+    private static final long[] BUCKETS = {
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MICROSECONDS.toNanos(250),
+            TimeUnit.MICROSECONDS.toNanos(500),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(25),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(250),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(2500),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10)
+    };
+    // The bounds in seconds as they are written, in plain decimal like 0.0001 rather than 1.0E-4
+    private static final String[] BUCKET_LABELS = new String[BUCKETS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKETS[i], 9).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    // Metrics with the same name are written together, in the order they were created
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * Creates a counter that is added to by the bot.
+     * @param name The name of the metric.
+     * @param help What the metric counts.
+     * @param labels The labels of this counter, e.g. command="click", or an empty string.
+     * @return The counter.
+     */
+    public synchronized Counter counter(String name, String help, String labels) {
+        Counter counter = new Counter();
+        family(name, help, "counter").add(labels, counter);
+        return counter;
+    }
+
+    /**
+     * Creates a counter whose value is read from somewhere else, e.g. a count that is already kept by another class.
+     * @param name The name of the metric.
+     * @param help What the metric counts.
+     * @param labels The labels of this counter, or an empty string.
+     * @param value Reads the current value of the counter.
+     */
+    public synchronized void counter(String name, String help, String labels, DoubleSupplier value) {
+        family(name, help, "counter").add(labels, value);
+    }
+
+    /**
+     * Creates a gauge, a value that can go up and down.
+     * @param name The name of the metric.
+     * @param help What the metric measures.
+     * @param labels The labels of this gauge, or an empty string.
+     * @param value Reads the current value of the gauge.
+     */
+    public synchronized void gauge(String name, String help, String labels, DoubleSupplier value) {
+        family(name, help, "gauge").add(labels, value);
+    }
+
+    /**
+     * Creates a histogram of durations, which are written in seconds.
+     * @param name The name of the metric.
+     * @param help What the metric times.
+     * @param labels The labels of this histogram, or an empty string.
+     * @return The histogram.
+     */
+    public synchronized Histogram histogram(String name, String help, String labels) {
+        Histogram histogram = new Histogram();
+        family(name, help, "histogram").add(labels, histogram);
+        return histogram;
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already a " + family.type);
+        }
+        return family;
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format.
+     * @param sb The builder to write to.
+     */
+    public synchronized void write(StringBuilder sb) {
+        families.forEach((name, family) -> {
+            sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+
+            for (int i = 0; i < family.labels.size(); i++) {
+                String labels = family.labels.get(i);
+                Object metric = family.metrics.get(i);
+                if (metric instanceof Histogram histogram) {
+                    histogram.write(sb, name, labels);
+                } else {
+                    double value = metric instanceof Counter counter ? counter.get() : ((DoubleSupplier) metric).getAsDouble();
+                    writeSample(sb, name, labels, value);
+                }
+            }
+        });
+    }
+
+    private static void writeSample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            sb.append((long) value);
+        } else if (Double.isNaN(value)) {
+            sb.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            sb.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            sb.append(BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Serves the metrics at /metrics on the local machine only, on a single daemon thread.
+     * @param port The port to listen on.
+     * @return The running server.
+     * @throws IOException If the port can't be used.
+     */
+    public HttpServer startServer(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/metrics", exchange -> {
+            StringBuilder sb = new StringBuilder();
+            write(sb);
+            byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        return server;
+    }
+
+    /**
+     * The metrics that share a name, each with different labels.
+     */
+    private static class Family {
+        private final String help;
+        private final String type;
+        private final List<String> labels = new ArrayList<>();
+        private final List<Object> metrics = new ArrayList<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+
+        private void add(String labels, Object metric) {
+            if (this.labels.contains(labels)) {
+                throw new IllegalArgumentException("Metric with labels {" + labels + "} already exists");
+            }
+            this.labels.add(labels);
+            this.metrics.add(metric);
+        }
+    }
+
+    /**
+     * A count that only goes up.
+     */
+    public static class Counter {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() {
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Counts durations in fixed buckets, from 100 microseconds up to 10 seconds.
+     */
+    public static class Histogram {
+        // The last bucket counts everything slower than the largest bound
+        private final LongAdder[] buckets = new LongAdder[BUCKETS.length + 1];
+        private final LongAdder sum = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records a duration.
+         * @param nanos The duration in nanoseconds.
+         */
+        public void observe(long nanos) {
+            int bucket = 0;
+            while (bucket < BUCKETS.length && nanos > BUCKETS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            sum.add(nanos);
+        }
+
+        /**
+         * Records the time since a start time.
+         * @param start The start time, from System.nanoTime().
+         */
+        public void observeSince(long start) {
+            observe(System.nanoTime() - start);
+        }
+
+        /**
+         * @return The amount of durations recorded.
+         */
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        private void write(StringBuilder sb, String name, String labels) {
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+
+            // Prometheus buckets count everything up to their bound, so the counts are added up
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                count += buckets[i].sum();
+                String bound = i < BUCKETS.length ? BUCKET_LABELS[i] : "+Inf";
+                writeSample(sb, name + "_bucket", prefix + "le=\"" + bound + "\"", count);
+            }
+            writeSample(sb, name + "_sum", labels, sum.sum() / 1e9);
+            writeSample(sb, name + "_count", labels, count);
+        }
+    }
+}
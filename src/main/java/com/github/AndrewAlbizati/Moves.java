@@ -0,0 +1,102 @@
+package com.github.AndrewAlbizati;
+
+import java.util.Arrays;
+
+/**
+ * Reads the list of moves given to /move, such as "A1 B2 f:C3 c:D4".
+ * Moves are separated by spaces or commas, and are clicks unless they start with f: for a flag.
+ * Each move is a position packed by Position, with a bit set if it places a flag.
+ */
+public final class Moves {
+    public static final int MAX_MOVES = 100;
+
+    // Rows only go up to Position.MAX_ROWS, so the sign bit is never part of a position
+    private static final int FLAG = 1 << 31;
+
+    private Moves() {
+    }
+
+    /**
+     * @param text The moves, e.g. "A1 B2 f:C3 c:D4".
+     * @return The moves in the order they were given.
+     * @throws IllegalArgumentException If a move can't be read, there are no moves, or there are too many.
+     */
+    public static int[] parse(CharSequence text) {
+        int[] moves = new int[MAX_MOVES];
+        int count = 0;
+
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            if (isSeparator(text.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            while (i < length && !isSeparator(text.charAt(i))) {
+                i++;
+            }
+
+            if (count == MAX_MOVES) {
+                throw new IllegalArgumentException("You can make at most " + MAX_MOVES + " moves at once");
+            }
+
+            // f: flags the tile and c: clicks it, which is the same as no prefix
+            boolean flag = false;
+            int positionStart = start;
+            if (i - start > 2 && text.charAt(start + 1) == ':') {
+                char prefix = Character.toLowerCase(text.charAt(start));
+                if (prefix == 'f') {
+                    flag = true;
+                } else if (prefix != 'c') {
+                    throw invalid(text, start, i);
+                }
+                positionStart += 2;
+            }
+
+            int position = Position.parse(text, positionStart, i);
+            if (position == Position.INVALID) {
+                throw invalid(text, start, i);
+            }
+            moves[count++] = flag ? position | FLAG : position;
+        }
+
+        if (count == 0) {
+            throw new IllegalArgumentException("No moves were given. Moves are formatted as A5, or f:A5 to place a flag");
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence text, int start, int end) {
+        return new IllegalArgumentException(text.subSequence(start, end) + " isn't a move. Moves are formatted as A5, or f:A5 to place a flag");
+    }
+
+    public static int click(int position) {
+        return position;
+    }
+
+    public static int flag(int position) {
+        return position | FLAG;
+    }
+
+    /**
+     * @param move A move.
+     * @return If the move places or removes a flag instead of clicking.
+     */
+    public static boolean isFlag(int move) {
+        return (move & FLAG) != 0;
+    }
+
+    /**
+     * @param move A move.
+     * @return The packed position of the move's tile.
+     */
+    public static int getPosition(int move) {
+        return move & ~FLAG;
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.AndrewAlbizati;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Generates boards that can be solved from start to finish without guessing.
+ * Random boards are opened from the middle tile and played by the solver, which only clicks tiles it can prove are safe,
+ * and the first board it solves is used. Boards are checked on every core at once and the rest stop as soon as one is found.
+ * A few boards of each difficulty are kept ready in a BoardPool, which is topped up in the background.
+ */
+public class NoGuessGenerator {
+    // Checking one board takes longer than the timeout past this size, e.g. about a second at 200x200
+    public static final int MAX_TILES = 100 * 100;
+
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final long timeout;
+
+    private final Map<Difficulty, BoardPool> pools = new EnumMap<>(Difficulty.class);
+
+    private final LongAdder boardsTried = new LongAdder();
+    private final LongAdder boardsRejected = new LongAdder();
+
+    /**
+     * @param poolSize The amount of boards to keep ready for each difficulty, or 0 to always generate boards while players wait.
+     * @param timeout How long to look for a board before giving up, in milliseconds.
+     */
+    public NoGuessGenerator(int poolSize, long timeout) {
+        this.timeout = timeout;
+        parallelism = Runtime.getRuntime().availableProcessors();
+
+        workers = Executors.newFixedThreadPool(parallelism, daemon("no-guess-generator", Thread.NORM_PRIORITY));
+        if (poolSize == 0) {
+            return;
+        }
+
+        ExecutorService refiller = Executors.newSingleThreadExecutor(daemon("no-guess-pool", Thread.MIN_PRIORITY));
+        for (Difficulty difficulty : Difficulty.values()) {
+            pools.put(difficulty, new BoardPool(difficulty, poolSize, () -> {
+                Board board = null;
+                while (board == null) {
+                    board = attempt(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), () -> false);
+                }
+                return board;
+            }, refiller));
+        }
+    }
+
+    private static ThreadFactory daemon(String name, int priority) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+
+    /**
+     * Gets a board that can be solved without guessing, taken from the pool when one of the same difficulty is ready.
+     * The board has its bombs placed and the opening around its middle tile revealed.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     * @return A future that completes with the board, or fails with an IllegalStateException if none was found in time.
+     */
+    public CompletableFuture<Board> generate(int rows, int cols, int mines) {
+        Difficulty difficulty = Difficulty.find(rows, cols, mines);
+        if (difficulty != null && pools.containsKey(difficulty)) {
+            Board board = pools.get(difficulty).poll();
+            if (board != null) {
+                return CompletableFuture.completedFuture(board);
+            }
+        }
+
+        return search(rows, cols, mines);
+    }
+
+    /**
+     * Gets the board of a seed, used to replay a no-guess game.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     * @param seed The seed of the board.
+     * @return A future that completes with the board, or fails with an IllegalStateException if the board needs guessing
+     *         or couldn't be checked in time.
+     */
+    public CompletableFuture<Board> generate(int rows, int cols, int mines, long seed) {
+        return CompletableFuture.supplyAsync(() -> {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            Board board = tryBoard(rows, cols, mines, seed, () -> System.nanoTime() > deadline);
+            if (board == null) {
+                throw new IllegalStateException(System.nanoTime() > deadline
+                        ? "That board took too long to check. Please try a smaller board."
+                        : "That seed doesn't give a board that can be solved without guessing.");
+            }
+            return board;
+        }, workers);
+    }
+
+    /**
+     * Gets the board of the first seed, counting up from the given one, that can be solved without guessing.
+     * The same seed always gives the same board, so every player of the daily challenge gets the same one.
+     * @param rows The amount of rows on the board.
+     * @param cols The amount of columns on the board.
+     * @param mines The amount of bombs on the board.
+     * @param seed The first seed to check.
+     * @param tries The most seeds to check.
+     * @return A future that completes with the board, or fails with an IllegalStateException if none of the seeds gave one.
+     */
+    public CompletableFuture<Board> generateFrom(int rows, int cols, int mines, long seed, int tries) {
+        return CompletableFuture.supplyAsync(() -> {
+            long next = seed;
+            for (int i = 0; i < tries; i++) {
+                Board board = tryBoard(rows, cols, mines, next);
+                if (board != null) {
+                    return board;
+                }
+                next = (next + 1) & Game.MAX_SEED;
+            }
+            throw new IllegalStateException("None of " + tries + " seeds gave a board that can be solved without guessing.");
+        }, workers);
+    }
+
+    /**
+     * Checks random boards on every worker until one of them is solved or the timeout passes.
+     */
+    private CompletableFuture<Board> search(int rows, int cols, int mines) {
+        CompletableFuture<Board> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        // Checked while a board is being solved too, so a large board doesn't keep a worker after the search is over
+        BooleanSupplier stop = () -> result.isDone() || System.nanoTime() > deadline;
+
+        for (int i = 0; i < parallelism; i++) {
+            workers.execute(() -> {
+                // Stop as soon as any worker has finished the search
+                while (!result.isDone()) {
+                    if (System.nanoTime() > deadline) {
+                        result.completeExceptionally(new IllegalStateException("Couldn't find a board that can be solved without guessing. Please try fewer bombs."));
+                        return;
+                    }
+
+                    Board board = attempt(rows, cols, mines, stop);
+                    if (board != null) {
+                        result.complete(board);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Tries one random board and counts it.
+     * @param stop Checked between the solver's moves, stops trying the board once it returns true.
+     * @return The board if it can be solved without guessing, otherwise null.
+     */
+    private Board attempt(int rows, int cols, int mines, BooleanSupplier stop) {
+        boardsTried.increment();
+        Board board = tryBoard(rows, cols, mines, ThreadLocalRandom.current().nextLong(Game.MAX_SEED + 1), stop);
+        // Boards that were stopped aren't known to need guessing
+        if (board == null && !stop.getAsBoolean()) {
+            boardsRejected.increment();
+        }
+        return board;
+    }
+
+    /**
+     * @param difficulty The difficulty of the boards.
+     * @return The pool of ready boards of the difficulty, or null if boards aren't kept ready.
+     */
+    public BoardPool getPool(Difficulty difficulty) {
+        return pools.get(difficulty);
+    }
+
+    /**
+     * @return The amount of random boards checked, in the pools and while players waited.
+     */
+    public long getBoardsTried() {
+        return boardsTried.sum();
+    }
+
+    /**
+     * @return The amount of random boards thrown away because they needed guessing, and another board had to be tried.
+     */
+    public long getBoardsRejected() {
+        return boardsRejected.sum();
+    }
+
+    /**
+     * Places bombs from a random seed and lets the solver play the board from its middle tile.
+     * @return The board with only its opening revealed if the solver finished it, otherwise null.
+     */
+    public static Board tryBoard(int rows, int cols, int mines) {
+        return tryBoard(rows, cols, mines, ThreadLocalRandom.current().nextLong(Game.MAX_SEED + 1));
+    }
+
+    /**
+     * Places bombs from a seed and lets the solver play the board from its middle tile.
+     * The board is the same one a normal game with the seed gets when its middle tile is clicked first.
+     * @return The board with only its opening revealed if the solver finished it, otherwise null.
+     */
+    public static Board tryBoard(int rows, int cols, int mines, long seed) {
+        return tryBoard(rows, cols, mines, seed, () -> false);
+    }
+
+    /**
+     * Places bombs from a seed and lets the solver play the board from its middle tile, until it is told to stop.
+     * @param stop Checked between the solver's moves, stops trying the board once it returns true.
+     * @return The board with only its opening revealed if the solver finished it, otherwise null.
+     */
+    public static Board tryBoard(int rows, int cols, int mines, long seed, BooleanSupplier stop) {
+        Board board = new Board(rows, cols);
+        int start = board.getIndex(rows / 2, cols / 2);
+        board.placeMines(mines, start, seed);
+
+        int hidden = board.size() - mines - board.reveal(start);
+        // Boards that are finished by the opening alone aren't worth playing
+        if (hidden == 0) {
+            return null;
+        }
+
+        Solver solver = new Solver(board, mines);
+        Solver.Hint hint;
+        while (hidden > 0 && !stop.getAsBoolean() && (hint = solver.findSafe()) != null) {
+            hidden -= board.reveal(board.getIndex(hint.row(), hint.col()));
+        }
+        if (hidden > 0) {
+            return null;
+        }
+
+        board.hideAll();
+        board.reveal(start);
+        return board;
+    }
+}
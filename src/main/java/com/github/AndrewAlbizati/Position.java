@@ -0,0 +1,138 @@
+package com.github.AndrewAlbizati;
+
+/**
+ * Reads and writes the positions of tiles, such as A5 or AB12.
+ * Rows are lettered A to Z, then AA to ZZ, then AAA to ZZZ, and columns are numbered from 1.
+ * Parsing doesn't allocate, the row and column are packed into one int.
+ */
+public final class Position {
+    public static final int MAX_ROWS = 26 + 26 * 26 + 26 * 26 * 26;
+    public static final int MAX_COLUMNS = 9999;
+
+    // Returned for text that isn't a position
+    public static final int INVALID = -1;
+
+    private Position() {
+    }
+
+    /**
+     * Reads a position, ignoring case and spaces around it.
+     * @param text The position, e.g. A5 or ab12.
+     * @return The packed row and column, or INVALID if the text isn't a position.
+     */
+    public static int parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Reads a position from part of some text, ignoring case and spaces around it.
+     * @param text The text that has the position.
+     * @param start The index of the first character of the position.
+     * @param end The index after the last character of the position.
+     * @return The packed row and column, or INVALID if that part of the text isn't a position.
+     */
+    public static int parse(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        // One to three letters, where A is 1, AA comes after Z, and AAA comes after ZZ
+        int i = start;
+        int row = 0;
+        while (i < end && i - start < 3) {
+            int letter = letter(text.charAt(i));
+            if (letter < 0) {
+                break;
+            }
+            row = row * 26 + letter + 1;
+            i++;
+        }
+        if (i == start) {
+            return INVALID;
+        }
+
+        // One to four digits, and nothing after them
+        int digits = i;
+        int col = 0;
+        while (i < end && i - digits < 4) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            col = col * 10 + (c - '0');
+            i++;
+        }
+        if (i == digits || i != end || col == 0) {
+            return INVALID;
+        }
+
+        return pack(row - 1, col - 1);
+    }
+
+    private static int letter(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return -1;
+    }
+
+    public static int pack(int row, int col) {
+        return row << 16 | col;
+    }
+
+    /**
+     * @param position A packed position.
+     * @return The row of the position, starting at 0.
+     */
+    public static int getRow(int position) {
+        return position >>> 16;
+    }
+
+    /**
+     * @param position A packed position.
+     * @return The column of the position, starting at 0.
+     */
+    public static int getColumn(int position) {
+        return position & 0xFFFF;
+    }
+
+    /**
+     * @param row The row, starting at 0.
+     * @return The letters of the row, e.g. A, AB, or ABC.
+     */
+    public static String getRowName(int row) {
+        if (row < 26) {
+            return String.valueOf((char) ('A' + row));
+        }
+
+        char[] letters = new char[3];
+        int start = letters.length;
+        for (int n = row + 1; n > 0; n = (n - 1) / 26) {
+            letters[--start] = (char) ('A' + (n - 1) % 26);
+        }
+        return new String(letters, start, letters.length - start);
+    }
+
+    /**
+     * @param row The row, starting at 0.
+     * @return The amount of letters in the row's name.
+     */
+    public static int getRowNameLength(int row) {
+        return row < 26 ? 1 : row < 26 + 26 * 26 ? 2 : 3;
+    }
+
+    /**
+     * @param row The row, starting at 0.
+     * @param col The column, starting at 0.
+     * @return The position as it is typed by players, e.g. A5, AB12, or ABC123.
+     */
+    public static String format(int row, int col) {
+        return getRowName(row) + (col + 1);
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.AndrewAlbizati;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Plays games without Discord using a strategy, and measures how fast and how well they are played.
+ * Run with: java -cp minesweeper-bot-1.0.0.jar com.github.AndrewAlbizati.Simulation [random|rules|solver] [difficulty] [games]
+ */
+public class Simulation {
+    private final Difficulty difficulty;
+    private final Supplier<Strategy> strategies;
+
+    /**
+     * @param difficulty The difficulty of every game.
+     * @param strategies Creates the strategy for each game.
+     */
+    public Simulation(Difficulty difficulty, Supplier<Strategy> strategies) {
+        this.difficulty = difficulty;
+        this.strategies = strategies;
+    }
+
+    /**
+     * Plays games one after another on the calling thread.
+     * @param games The amount of games to play.
+     * @return What was measured while playing.
+     */
+    public Result run(int games) {
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+
+        int wins = 0;
+        long moves = 0;
+        long tilesRevealed = 0;
+        long clickTime = 0;
+        for (int i = 0; i < games; i++) {
+            Game game = new Game(difficulty);
+            Strategy strategy = strategies.get();
+
+            while (!game.hasEnded() && !game.hasWin()) {
+                Board board = game.getBoard();
+                int index = strategy.nextMove(game);
+                int hidden = game.getHiddenTiles();
+
+                long clickStart = System.nanoTime();
+                game.onClick(board.getRow(index), board.getColumn(index));
+                clickTime += System.nanoTime() - clickStart;
+
+                moves++;
+                tilesRevealed += hidden - game.getHiddenTiles();
+            }
+
+            if (game.hasWin()) {
+                wins++;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = getAllocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        return new Result(games, wins, moves, tilesRevealed, elapsed, clickTime, allocated);
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 if the JVM can't measure it.
+     */
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * What was measured during a simulation.
+     * @param games The amount of games played.
+     * @param wins The amount of games won.
+     * @param moves The amount of tiles clicked.
+     * @param tilesRevealed The amount of tiles revealed by those clicks.
+     * @param elapsed How long the games took, in nanoseconds.
+     * @param clickTime How long was spent in Game.onClick(), in nanoseconds.
+     * @param allocated The bytes allocated while playing, or -1 if they couldn't be measured.
+     */
+    public record Result(int games, int wins, long moves, long tilesRevealed, long elapsed, long clickTime, long allocated) {
+        public double getGamesPerSecond() {
+            return games / (elapsed / 1e9);
+        }
+
+        public double getWinRate() {
+            return (double) wins / games;
+        }
+
+        /**
+         * @return The average time of a click, in nanoseconds.
+         */
+        public double getClickCost() {
+            return (double) clickTime / moves;
+        }
+
+        /**
+         * @return The average time to reveal one tile, in nanoseconds.
+         */
+        public double getRevealCost() {
+            return (double) clickTime / tilesRevealed;
+        }
+
+        /**
+         * @return The average bytes allocated per move, including the strategy, or -1 if they couldn't be measured.
+         */
+        public double getAllocationPerMove() {
+            return allocated < 0 ? -1 : (double) allocated / moves;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games in %.2fs (%.0f games/s), win rate %.2f%%%n"
+                            + "%d moves, %.0fns per click, %.1fns per revealed tile, %.0f bytes allocated per move",
+                    games, elapsed / 1e9, getGamesPerSecond(), getWinRate() * 100,
+                    moves, getClickCost(), getRevealCost(), getAllocationPerMove());
+        }
+    }
+
+    public static void main(String[] args) {
+        String strategyName = args.length > 0 ? args[0] : "solver";
+        Difficulty difficulty = args.length > 1 ? Difficulty.valueOf(args[1].toUpperCase()) : Difficulty.BEGINNER;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+
+        Supplier<Strategy> strategies = switch (strategyName.toLowerCase()) {
+            case "random" -> Strategy::random;
+            case "rules" -> Strategy::rules;
+            case "solver" -> Strategy::solver;
+            default -> throw new IllegalArgumentException("Unknown strategy " + strategyName + ", expected random, rules or solver");
+        };
+
+        Simulation simulation = new Simulation(difficulty, strategies);
+        // Warm up the JIT before measuring
+        simulation.run(Math.max(games / 10, 1));
+
+        System.out.println(strategyName + " on " + difficulty.getName());
+        System.out.println(simulation.run(games));
+    }
+}
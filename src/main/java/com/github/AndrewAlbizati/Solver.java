@@ -0,0 +1,573 @@
+package com.github.AndrewAlbizati;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds safe tiles and mine probabilities using only what a player can see on a board.
+ * Single tile and subset rules are tried first, then every arrangement of bombs around the revealed numbers is counted,
+ * split into groups of tiles that don't affect each other.
+ * Tiles that are proven to be safe or to have a bomb are remembered, since later moves can never change them.
+ */
+public class Solver {
+    // Hints have to be answered quickly, so counting stops after this many steps of the search
+    // A step limit is used instead of a time limit so the same board always gets the same hint
+    private static final long STEP_BUDGET = 2_000_000L;
+    // Groups with more tiles than this are estimated instead of counted
+    private static final int MAX_GROUP_SIZE = 64;
+
+    private final Board board;
+    private final int mines;
+    private final long stepBudget;
+
+    private final boolean[] knownMine;
+    private final boolean[] knownSafe;
+
+    // What the last count of arrangements took, read by SolverBenchmark
+    private long stepsUsed;
+    private boolean estimated;
+
+    /**
+     * @param board The board to solve, only its revealed tiles and their numbers are looked at.
+     * @param mines The amount of bombs on the board.
+     */
+    public Solver(Board board, int mines) {
+        this(board, mines, STEP_BUDGET);
+    }
+
+    /**
+     * Creates a solver with a different step budget, used to measure how the budget affects hints.
+     * @param board The board to solve, only its revealed tiles and their numbers are looked at.
+     * @param mines The amount of bombs on the board.
+     * @param stepBudget The most steps counting arrangements can take before the chances are estimated.
+     */
+    Solver(Board board, int mines, long stepBudget) {
+        this.board = board;
+        this.mines = mines;
+        this.stepBudget = stepBudget;
+
+        knownMine = new boolean[board.size()];
+        knownSafe = new boolean[board.size()];
+    }
+
+    /**
+     * A tile that should be clicked next.
+     * @param row The row of the tile.
+     * @param col The column of the tile.
+     * @param mineChance The chance of the tile having a bomb, from 0 to 1.
+     */
+    public record Hint(int row, int col, double mineChance) {
+        public boolean isSafe() {
+            return mineChance == 0;
+        }
+    }
+
+    /**
+     * Finds a tile that is safe to click, or the tile least likely to have a bomb if there isn't one.
+     * @return The tile to click, or null if every tile without a bomb has been revealed.
+     */
+    public Hint hint() {
+        return hint(true);
+    }
+
+    /**
+     * Finds a safe tile using only rules and exact counting, never guessing.
+     * @return A tile that is proven to be safe, or null if there isn't one.
+     */
+    public Hint findSafe() {
+        return hint(false);
+    }
+
+    /**
+     * Finds a safe tile using only the single tile and subset rules, without counting arrangements.
+     * @return A tile that is proven to be safe, or null if the rules can't find one.
+     */
+    public Hint findSafeByRules() {
+        Hint safe = nextSafe();
+        if (safe != null) {
+            return safe;
+        }
+
+        applyRules();
+        return nextSafe();
+    }
+
+    /**
+     * @return The steps the last count of arrangements took, or 0 if nothing has been counted.
+     */
+    long getStepsUsed() {
+        return stepsUsed;
+    }
+
+    /**
+     * @return If the last count of arrangements ran out of steps or found a group too large, so chances were estimated.
+     */
+    boolean wasEstimated() {
+        return estimated;
+    }
+
+    private Hint hint(boolean guess) {
+        Hint safe = nextSafe();
+        if (safe != null) {
+            return safe;
+        }
+
+        applyRules();
+        safe = nextSafe();
+        if (safe != null) {
+            return safe;
+        }
+
+        return count(guess);
+    }
+
+    /**
+     * @return A hidden tile that is known to be safe, or null if there isn't one.
+     */
+    private Hint nextSafe() {
+        for (int i = 0; i < knownSafe.length; i++) {
+            if (knownSafe[i] && !board.isRevealed(i)) {
+                return createHint(i, 0);
+            }
+        }
+        return null;
+    }
+
+    private boolean isUnknown(int index) {
+        return !board.isRevealed(index) && !knownMine[index] && !knownSafe[index];
+    }
+
+    /**
+     * Collects the revealed numbers that still have unknown tiles around them.
+     * @return Each constraint as its unknown tiles and the amount of bombs among them.
+     */
+    private List<Constraint> getConstraints() {
+        List<Constraint> constraints = new ArrayList<>();
+        int[] unknown = new int[8];
+
+        for (int index = 0; index < board.size(); index++) {
+            if (!board.isRevealed(index) || board.hasMine(index) || board.getNumber(index) == 0) {
+                continue;
+            }
+
+            int count = 0;
+            int minesLeft = board.getNumber(index);
+            for (int mask = board.getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+                int neighbour = board.getNeighbour(index, mask);
+                if (knownMine[neighbour]) {
+                    minesLeft--;
+                } else if (isUnknown(neighbour)) {
+                    unknown[count++] = neighbour;
+                }
+            }
+
+            if (count > 0) {
+                constraints.add(new Constraint(Arrays.copyOf(unknown, count), minesLeft));
+            }
+        }
+        return constraints;
+    }
+
+    /**
+     * Marks tiles using the single tile rule (a number is already satisfied or needs every tile around it),
+     * and the subset rule (the tiles of one number are all around another number), until nothing changes.
+     */
+    private void applyRules() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            List<Constraint> constraints = getConstraints();
+
+            for (Constraint constraint : constraints) {
+                if (constraint.mines == 0) {
+                    changed |= mark(constraint.tiles, knownSafe);
+                } else if (constraint.mines == constraint.tiles.length) {
+                    changed |= mark(constraint.tiles, knownMine);
+                }
+            }
+            if (changed) {
+                continue;
+            }
+
+            // Only numbers within two tiles of each other can share tiles
+            for (Constraint a : constraints) {
+                for (Constraint b : constraints) {
+                    if (a == b || !isNear(a.tiles[0], b.tiles[0]) || !isSubset(a.tiles, b.tiles)) {
+                        continue;
+                    }
+
+                    int[] rest = difference(b.tiles, a.tiles);
+                    int restMines = b.mines - a.mines;
+                    if (rest.length > 0 && restMines == 0) {
+                        changed |= mark(rest, knownSafe);
+                    } else if (rest.length > 0 && restMines == rest.length) {
+                        changed |= mark(rest, knownMine);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isNear(int a, int b) {
+        int cols = board.getColumns();
+        return Math.abs(a / cols - b / cols) <= 4 && Math.abs(a % cols - b % cols) <= 4;
+    }
+
+    private static boolean mark(int[] tiles, boolean[] known) {
+        boolean changed = false;
+        for (int tile : tiles) {
+            if (!known[tile]) {
+                known[tile] = true;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean isSubset(int[] small, int[] large) {
+        if (small.length > large.length) {
+            return false;
+        }
+        for (int tile : small) {
+            if (Arrays.binarySearch(large, tile) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] difference(int[] large, int[] small) {
+        int[] rest = new int[large.length - small.length];
+        int count = 0;
+        for (int tile : large) {
+            if (Arrays.binarySearch(small, tile) < 0) {
+                rest[count++] = tile;
+            }
+        }
+        return rest;
+    }
+
+    /**
+     * Counts every arrangement of bombs that fits the revealed numbers to find each tile's chance of having a bomb.
+     * @param guess If the tile least likely to have a bomb should be returned when no tile is safe.
+     * @return The safest tile, or null if there isn't a hidden tile left (or no safe tile when not guessing).
+     */
+    private Hint count(boolean guess) {
+        long stepsLeft = stepBudget;
+        List<Constraint> constraints = getConstraints();
+
+        // Group tiles that share a number, using union-find over the board's indexes
+        int[] parent = new int[board.size()];
+        Arrays.fill(parent, -1);
+        for (Constraint constraint : constraints) {
+            for (int tile : constraint.tiles) {
+                if (parent[tile] == -1) {
+                    parent[tile] = tile;
+                }
+            }
+            for (int i = 1; i < constraint.tiles.length; i++) {
+                union(parent, constraint.tiles[0], constraint.tiles[i]);
+            }
+        }
+
+        int minesLeft = mines;
+        int otherTiles = 0;
+        for (int i = 0; i < board.size(); i++) {
+            if (knownMine[i]) {
+                minesLeft--;
+            } else if (parent[i] == -1 && isUnknown(i)) {
+                otherTiles++;
+            }
+        }
+
+        List<Group> groups = new ArrayList<>();
+        int[] groupOf = new int[board.size()];
+        Arrays.fill(groupOf, -1);
+        for (int i = 0; i < board.size(); i++) {
+            if (parent[i] == -1) {
+                continue;
+            }
+            int root = find(parent, i);
+            if (groupOf[root] == -1) {
+                groupOf[root] = groups.size();
+                groups.add(new Group());
+            }
+            groups.get(groupOf[root]).tiles.add(i);
+        }
+        for (Constraint constraint : constraints) {
+            groups.get(groupOf[find(parent, constraint.tiles[0])]).constraints.add(constraint);
+        }
+
+        boolean exact = true;
+        for (Group group : groups) {
+            if (group.tiles.size() > MAX_GROUP_SIZE || !group.enumerate(minesLeft, stepsLeft)) {
+                exact = false;
+                stepsLeft -= group.steps;
+                break;
+            }
+            stepsLeft -= group.steps;
+        }
+        stepsUsed = stepBudget - stepsLeft;
+        estimated = !exact;
+
+        double[] chances = exact ? exactChances(groups, minesLeft, otherTiles) : estimateChances(constraints, minesLeft);
+        if (chances == null) {
+            return null;
+        }
+
+        int best = -1;
+        for (int i = 0; i < board.size(); i++) {
+            if (!isUnknown(i)) {
+                continue;
+            }
+
+            if (exact && chances[i] == 0) {
+                knownSafe[i] = true;
+            }
+            if (best == -1 || chances[i] < chances[best]) {
+                best = i;
+            }
+        }
+
+        if (best == -1 || (chances[best] > 0 && !guess)) {
+            return null;
+        }
+        return createHint(best, chances[best]);
+    }
+
+    private Hint createHint(int index, double mineChance) {
+        return new Hint(board.getRow(index), board.getColumn(index), mineChance);
+    }
+
+    /**
+     * Combines the counted arrangements of every group with the ways the remaining bombs fit on the other tiles.
+     * @return The chance of every tile having a bomb, or null if there are no hidden tiles.
+     */
+    private double[] exactChances(List<Group> groups, int minesLeft, int otherTiles) {
+        double[] binomials = binomials(otherTiles, minesLeft);
+        double[] all = {1};
+        for (Group group : groups) {
+            all = convolve(all, group.solutions);
+        }
+
+        double total = 0;
+        double otherMines = 0;
+        for (int f = 0; f < all.length && f <= minesLeft; f++) {
+            double weight = all[f] * binomials[minesLeft - f];
+            total += weight;
+            otherMines += weight * (minesLeft - f);
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        double[] chances = new double[board.size()];
+        double otherChance = otherTiles == 0 ? 1 : otherMines / total / otherTiles;
+        Arrays.fill(chances, otherChance);
+
+        for (Group group : groups) {
+            // Ways the other groups can be arranged, by their amount of bombs
+            double[] others = {1};
+            for (Group other : groups) {
+                if (other != group) {
+                    others = convolve(others, other.solutions);
+                }
+            }
+
+            // Weight of each amount of bombs in this group
+            double[] weights = new double[group.solutions.length];
+            for (int k = 0; k < weights.length; k++) {
+                for (int f = 0; f < others.length && k + f <= minesLeft; f++) {
+                    weights[k] += others[f] * binomials[minesLeft - k - f];
+                }
+            }
+
+            for (int t = 0; t < group.tiles.size(); t++) {
+                double mineWeight = 0;
+                for (int k = 0; k < weights.length; k++) {
+                    mineWeight += group.tileMines[k][t] * weights[k];
+                }
+                chances[group.tiles.get(t)] = mineWeight / total;
+            }
+        }
+        return chances;
+    }
+
+    /**
+     * Estimates chances from each number alone, used when the groups are too large to count in time.
+     */
+    private double[] estimateChances(List<Constraint> constraints, int minesLeft) {
+        int unknownTiles = 0;
+        for (int i = 0; i < board.size(); i++) {
+            if (isUnknown(i)) {
+                unknownTiles++;
+            }
+        }
+        if (unknownTiles == 0) {
+            return null;
+        }
+
+        double[] chances = new double[board.size()];
+        Arrays.fill(chances, (double) minesLeft / unknownTiles);
+        boolean[] seen = new boolean[board.size()];
+        for (Constraint constraint : constraints) {
+            double chance = (double) constraint.mines / constraint.tiles.length;
+            for (int tile : constraint.tiles) {
+                chances[tile] = seen[tile] ? Math.max(chances[tile], chance) : chance;
+                seen[tile] = true;
+            }
+        }
+        return chances;
+    }
+
+    /**
+     * @return The number of ways to place each amount of bombs (up to max) on n tiles, scaled so the largest is 1.
+     */
+    private static double[] binomials(int n, int max) {
+        double[] logs = new double[max + 1];
+        double largest = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k <= max; k++) {
+            if (k > n) {
+                logs[k] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            logs[k] = k == 0 ? 0 : logs[k - 1] + Math.log(n - k + 1) - Math.log(k);
+            largest = Math.max(largest, logs[k]);
+        }
+
+        double[] binomials = new double[max + 1];
+        for (int k = 0; k <= max; k++) {
+            binomials[k] = Math.exp(logs[k] - largest);
+        }
+        return binomials;
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+
+    /**
+     * A revealed number, as the unknown tiles around it (in ascending order) and how many of them have a bomb.
+     */
+    private record Constraint(int[] tiles, int mines) {
+    }
+
+    /**
+     * Tiles that are linked to each other by revealed numbers, and the numbers linking them.
+     */
+    private static class Group {
+        private final List<Integer> tiles = new ArrayList<>();
+        private final List<Constraint> constraints = new ArrayList<>();
+
+        // Arrangements by amount of bombs, and how many of them have a bomb on each tile
+        private double[] solutions;
+        private double[][] tileMines;
+
+        // Search state
+        private int[][] tileConstraints;
+        private int[] constraintMines;
+        private int[] constraintPlaced;
+        private int[] constraintLeft;
+        private boolean[] assignment;
+        private long maxSteps;
+        private long steps;
+
+        /**
+         * Counts every arrangement of bombs in the group that fits its numbers.
+         * @return If counting finished within the amount of steps.
+         */
+        private boolean enumerate(int maxMines, long maxSteps) {
+            this.maxSteps = maxSteps;
+            int size = tiles.size();
+            solutions = new double[Math.min(size, maxMines) + 1];
+            tileMines = new double[solutions.length][size];
+
+            constraintMines = new int[constraints.size()];
+            constraintPlaced = new int[constraints.size()];
+            constraintLeft = new int[constraints.size()];
+            List<List<Integer>> byTile = new ArrayList<>();
+            for (int t = 0; t < size; t++) {
+                byTile.add(new ArrayList<>());
+            }
+            for (int c = 0; c < constraints.size(); c++) {
+                Constraint constraint = constraints.get(c);
+                constraintMines[c] = constraint.mines;
+                constraintLeft[c] = constraint.tiles.length;
+                for (int tile : constraint.tiles) {
+                    byTile.get(tiles.indexOf(tile)).add(c);
+                }
+            }
+            tileConstraints = new int[size][];
+            for (int t = 0; t < size; t++) {
+                tileConstraints[t] = byTile.get(t).stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            assignment = new boolean[size];
+            return search(0, 0);
+        }
+
+        private boolean search(int tile, int placed) {
+            if (++steps > maxSteps) {
+                return false;
+            }
+
+            if (tile == tiles.size()) {
+                solutions[placed]++;
+                for (int t = 0; t < assignment.length; t++) {
+                    if (assignment[t]) {
+                        tileMines[placed][t]++;
+                    }
+                }
+                return true;
+            }
+
+            // Try the tile without a bomb, then with one
+            for (int mine = 0; mine <= 1; mine++) {
+                if (mine == 1 && placed + 1 >= solutions.length) {
+                    break;
+                }
+
+                boolean valid = true;
+                for (int c : tileConstraints[tile]) {
+                    constraintPlaced[c] += mine;
+                    constraintLeft[c]--;
+                    if (constraintPlaced[c] > constraintMines[c] || constraintPlaced[c] + constraintLeft[c] < constraintMines[c]) {
+                        valid = false;
+                    }
+                }
+
+                assignment[tile] = mine == 1;
+                boolean finished = !valid || search(tile + 1, placed + mine);
+
+                for (int c : tileConstraints[tile]) {
+                    constraintPlaced[c] -= mine;
+                    constraintLeft[c]++;
+                }
+                if (!finished) {
+                    return false;
+                }
+            }
+            assignment[tile] = false;
+            return true;
+        }
+    }
+}
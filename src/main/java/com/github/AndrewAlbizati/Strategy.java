@@ -0,0 +1,67 @@
+package com.github.AndrewAlbizati;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the tiles to click in a simulated game. A new strategy is created for every game, so it can keep what it has learned.
+ */
+public interface Strategy {
+    /**
+     * @param game The game being played, which hasn't ended.
+     * @return The index of the tile to click next.
+     */
+    int nextMove(Game game);
+
+    /**
+     * @return A strategy that clicks a random hidden tile.
+     */
+    static Strategy random() {
+        return Strategy::randomTile;
+    }
+
+    /**
+     * @return A strategy that clicks tiles found by the single tile and subset rules, and a random hidden tile when there aren't any.
+     */
+    static Strategy rules() {
+        return new Strategy() {
+            private Solver solver;
+
+            @Override
+            public int nextMove(Game game) {
+                if (!game.hasStarted()) {
+                    return randomTile(game);
+                }
+
+                if (solver == null) {
+                    solver = new Solver(game.getBoard(), game.getMines());
+                }
+                Solver.Hint hint = solver.findSafeByRules();
+                return hint == null ? randomTile(game) : game.getBoard().getIndex(hint.row(), hint.col());
+            }
+        };
+    }
+
+    /**
+     * @return A strategy that clicks the tile given by /hint, which is a safe tile or the tile least likely to have a bomb.
+     */
+    static Strategy solver() {
+        return game -> {
+            Solver.Hint hint = game.getHint();
+            return game.getBoard().getIndex(hint.row(), hint.col());
+        };
+    }
+
+    /**
+     * @return The index of a random tile that hasn't been revealed.
+     */
+    private static int randomTile(Game game) {
+        Board board = game.getBoard();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int index = random.nextInt(board.size());
+            if (!board.isRevealed(index)) {
+                return index;
+            }
+        }
+    }
+}
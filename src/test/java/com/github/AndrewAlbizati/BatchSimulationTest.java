@@ -0,0 +1,57 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a batch gives the same results on any amount of threads, and the same results as before the board's
+ * neighbours were looked up through one shared kernel.
+ */
+class BatchSimulationTest {
+    private static final long SEED = 7;
+    private static final int GAMES = 500;
+    private static final int[][] SIZES = {{9, 9, 10}, {16, 16, 40}, {16, 30, 99}};
+
+    @Test
+    void resultsMatchRecordedOutput() throws IOException {
+        String expected;
+        // Printed by: BatchSimulation 7 500 9x9x10 16x16x40 16x30x99, without the timings
+        try (InputStream in = getClass().getResourceAsStream("/batch-simulation.txt")) {
+            expected = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertEquals(normalize(expected), normalize(run(ForkJoinPool.commonPool())));
+    }
+
+    @Test
+    void resultsDontDependOnThreads() {
+        String expected = run(new ForkJoinPool(1));
+        for (int threads : new int[] {3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertEquals(expected, run(pool), threads + " threads");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static String run(ForkJoinPool pool) {
+        StringBuilder sb = new StringBuilder();
+        for (int[] size : SIZES) {
+            sb.append(new BatchSimulation(size[0], size[1], size[2], SEED).run(GAMES, pool));
+            sb.append("\n\n");
+        }
+        return sb.toString();
+    }
+
+    private static String normalize(String text) {
+        return text.replace("\r\n", "\n").strip();
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that chording a number does the same as clicking each of its hidden neighbours without a flag, with both
+ * right and wrong flags around it.
+ */
+class ChordTest {
+    @Test
+    void chordMatchesClickingEachNeighbour() throws IOException {
+        int chords = 0;
+        for (long seed = 1; seed <= 300; seed++) {
+            Random random = new Random(seed);
+            int rows = 5 + random.nextInt(26);
+            int cols = 5 + random.nextInt(26);
+            int mines = random.nextInt(rows * cols / 4);
+            Game chorded = new Game(rows, cols, mines, seed);
+            Game clicked = new Game(rows, cols, mines, seed);
+            chorded.onClick(rows / 2, cols / 2);
+            clicked.onClick(rows / 2, cols / 2);
+
+            while (!chorded.hasEnded() && !chorded.hasWin()) {
+                int number = findNumber(chorded.getBoard(), random);
+                if (number < 0) {
+                    break;
+                }
+                Board board = chorded.getBoard();
+                int row = board.getRow(number);
+                int col = board.getColumn(number);
+
+                // Flags go on the bombs most of the time, and on random hidden neighbours otherwise
+                List<Integer> hidden = new ArrayList<>();
+                for (int mask = board.getNeighbourMask(number); mask != 0; mask &= mask - 1) {
+                    int neighbour = board.getNeighbour(number, mask);
+                    if (!board.isRevealed(neighbour) && !board.hasFlag(neighbour)) {
+                        hidden.add(neighbour);
+                    }
+                }
+                boolean right = random.nextInt(5) > 0;
+                for (int neighbour : hidden) {
+                    if (right ? board.hasMine(neighbour) : random.nextBoolean()) {
+                        chorded.addFlag(board.getRow(neighbour), board.getColumn(neighbour));
+                        clicked.addFlag(board.getRow(neighbour), board.getColumn(neighbour));
+                    }
+                }
+
+                boolean flagsMatch = countFlagsAround(board, number) == board.getNumber(number);
+                chorded.chord(row, col);
+                if (flagsMatch) {
+                    chords++;
+                    for (int mask = board.getNeighbourMask(number); mask != 0; mask &= mask - 1) {
+                        int neighbour = board.getNeighbour(number, mask);
+                        Board other = clicked.getBoard();
+                        if (!clicked.hasEnded() && !other.isRevealed(neighbour) && !other.hasFlag(neighbour)) {
+                            clicked.onClick(board.getRow(neighbour), board.getColumn(neighbour));
+                        }
+                    }
+                }
+
+                String context = "seed " + seed + ", chord on " + Position.format(row, col);
+                assertArrayEquals(toBytes(clicked.getBoard()), toBytes(chorded.getBoard()), context);
+                assertEquals(clicked.getFlagsPlaced(), chorded.getFlagsPlaced(), context);
+                assertEquals(clicked.hasEnded(), chorded.hasEnded(), context);
+                // Once a bomb is hit the hidden tiles depend on which neighbour was clicked first, so they aren't compared
+                if (!chorded.hasEnded()) {
+                    assertEquals(clicked.getHiddenTiles(), chorded.getHiddenTiles(), context);
+                }
+                assertEquals(clicked.hasWin(), chorded.hasWin(), context);
+            }
+        }
+        // Enough of the chords had the right amount of flags to reveal tiles
+        assertEquals(true, chords > 1000, chords + " chords");
+    }
+
+    /**
+     * Finds a revealed number with a hidden neighbour that isn't flagged, starting from a random tile.
+     * @return The index of the number, or -1 if there isn't one.
+     */
+    private static int findNumber(Board board, Random random) {
+        int start = random.nextInt(board.size());
+        for (int i = 0; i < board.size(); i++) {
+            int index = (start + i) % board.size();
+            if (!board.isRevealed(index) || board.getNumber(index) == 0) {
+                continue;
+            }
+            for (int mask = board.getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+                int neighbour = board.getNeighbour(index, mask);
+                if (!board.isRevealed(neighbour) && !board.hasFlag(neighbour)) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int countFlagsAround(Board board, int index) {
+        int flags = 0;
+        for (int mask = board.getNeighbourMask(index); mask != 0; mask &= mask - 1) {
+            if (board.hasFlag(board.getNeighbour(index, mask))) {
+                flags++;
+            }
+        }
+        return flags;
+    }
+
+    private static byte[] toBytes(Board board) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        board.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the daily challenge's board is made on the generator's workers and is the same for every player.
+ */
+class DailyChallengeTest {
+    @Test
+    void todayIsGeneratedOnce() {
+        DailyChallenge daily = new DailyChallenge(new NoGuessGenerator(0, 5000));
+        CompletableFuture<DailyChallenge.Day> today = daily.getToday();
+        assertSame(today, daily.getToday());
+        assertEquals(DailyChallenge.getCurrentDay(), today.join().getDay());
+    }
+
+    @Test
+    void everyoneGetsTheSameBoard() {
+        DailyChallenge.Day first = new DailyChallenge(new NoGuessGenerator(0, 5000)).getToday().join();
+        DailyChallenge.Day second = new DailyChallenge(new NoGuessGenerator(0, 5000)).getToday().join();
+        assertEquals(first.createGame().getSeed(), second.createGame().getSeed());
+        assertEquals(first.createGame().toString(), second.createGame().toString());
+    }
+
+    @Test
+    void generateFromTakesTheFirstSolvableSeed() {
+        NoGuessGenerator generator = new NoGuessGenerator(0, 5000);
+        Difficulty difficulty = Difficulty.EXPERT;
+        long seed = 1;
+        while (NoGuessGenerator.tryBoard(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), seed) == null) {
+            seed++;
+        }
+
+        Board board = generator.generateFrom(difficulty.getRows(), difficulty.getColumns(), difficulty.getMines(), 1, 1000).join();
+        assertEquals(seed, board.getSeed());
+    }
+
+    @Test
+    void generateFromGivesUpAfterItsTries() {
+        NoGuessGenerator generator = new NoGuessGenerator(0, 5000);
+        // Boards finished by their opening alone are never used
+        CompletionException e = assertThrows(CompletionException.class, () -> generator.generateFrom(3, 3, 0, 1, 10).join());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
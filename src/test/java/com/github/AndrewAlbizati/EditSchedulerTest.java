@@ -0,0 +1,189 @@
+package com.github.AndrewAlbizati;
+
+import org.javacord.api.entity.message.embed.EmbedBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends edits through a fake sender that records what was sent and when, instead of editing Discord messages.
+ */
+class EditSchedulerTest {
+    private static final long WINDOW = 20;
+    private static final long CHANNEL_INTERVAL = 50;
+
+    @Test
+    void burstIsMergedIntoLatestEmbed() throws Exception {
+        EditScheduler scheduler = new EditScheduler(WINDOW, CHANNEL_INTERVAL);
+        List<EmbedBuilder> sent = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        EmbedBuilder last = null;
+        for (int i = 0; i < 100; i++) {
+            last = new EmbedBuilder().setTitle("Move " + i);
+            futures.add(scheduler.edit(1, 1, last, record(sent)));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertTrue(sent.size() <= 2, sent.size() + " edits sent");
+        assertSame(last, sent.get(sent.size() - 1));
+        assertEquals(100, scheduler.getEditsRequested());
+        assertEquals(sent.size(), scheduler.getEditsSent());
+    }
+
+    @Test
+    void editsInOneChannelAreSpacedOut() throws Exception {
+        EditScheduler scheduler = new EditScheduler(WINDOW, CHANNEL_INTERVAL);
+        List<Long> times = Collections.synchronizedList(new ArrayList<>());
+        Function<EmbedBuilder, CompletableFuture<?>> sender = embed -> {
+            times.add(System.nanoTime());
+            return CompletableFuture.completedFuture(null);
+        };
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long messageId = 0; messageId < 5; messageId++) {
+            futures.add(scheduler.edit(1, messageId, new EmbedBuilder(), sender));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(5, times.size());
+        List<Long> sorted = new ArrayList<>(times);
+        Collections.sort(sorted);
+        // Edits get time slots an interval apart, but one that runs late can end up closer to the one after it
+        for (int i = 1; i < sorted.size(); i++) {
+            long gap = TimeUnit.NANOSECONDS.toMillis(sorted.get(i) - sorted.get(i - 1));
+            assertTrue(gap >= CHANNEL_INTERVAL / 2, "edits " + gap + "ms apart");
+        }
+        long total = TimeUnit.NANOSECONDS.toMillis(sorted.get(sorted.size() - 1) - sorted.get(0));
+        assertTrue(total >= (sorted.size() - 1) * CHANNEL_INTERVAL - 10, "edits sent over " + total + "ms");
+    }
+
+    @Test
+    void failedEditFailsItsFuturesOnly() throws Exception {
+        EditScheduler scheduler = new EditScheduler(WINDOW, CHANNEL_INTERVAL);
+        CompletableFuture<Void> failed = scheduler.edit(1, 1, new EmbedBuilder(), embed -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+
+        List<EmbedBuilder> sent = Collections.synchronizedList(new ArrayList<>());
+        EmbedBuilder embed = new EmbedBuilder();
+        scheduler.edit(1, 1, embed, record(sent)).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(embed), sent);
+    }
+
+    @Test
+    void channelsAreForgottenOnceTheirSlotPasses() throws Exception {
+        EditScheduler scheduler = new EditScheduler(WINDOW, CHANNEL_INTERVAL);
+        List<EmbedBuilder> sent = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long channel = 0; channel < 1000; channel++) {
+            futures.add(scheduler.edit(channel, channel, new EmbedBuilder(), record(sent)));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getReservedChannels() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, scheduler.getReservedChannels());
+
+        // A forgotten channel can still be edited, and is spaced out again
+        List<Long> times = Collections.synchronizedList(new ArrayList<>());
+        Function<EmbedBuilder, CompletableFuture<?>> timed = embed -> {
+            times.add(System.nanoTime());
+            return CompletableFuture.completedFuture(null);
+        };
+        scheduler.edit(1, 1, new EmbedBuilder(), timed).get(5, TimeUnit.SECONDS);
+        scheduler.edit(1, 2, new EmbedBuilder(), timed).get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(times.get(1) - times.get(0)) >= CHANNEL_INTERVAL / 2);
+    }
+
+    @Test
+    void concurrentEditsEndWithLatestEmbed() throws Exception {
+        // Short intervals so the many messages don't wait long for their channel
+        EditScheduler scheduler = new EditScheduler(1, 1);
+        int threads = 8;
+        int messagesPerThread = 10;
+        int editsPerMessage = 50;
+        Map<Long, List<EmbedBuilder>> sent = new ConcurrentHashMap<>();
+        Map<Long, EmbedBuilder> latest = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread worker = new Thread(() -> {
+                awaitQuietly(start);
+                // Each message is only edited by one thread, so its latest embed is known
+                for (int edit = 0; edit < editsPerMessage; edit++) {
+                    for (int m = 0; m < messagesPerThread; m++) {
+                        long messageId = thread * messagesPerThread + m;
+                        EmbedBuilder embed = new EmbedBuilder().setTitle(messageId + " " + edit);
+                        latest.put(messageId, embed);
+                        List<EmbedBuilder> messageSent = sent.computeIfAbsent(messageId, id -> Collections.synchronizedList(new ArrayList<>()));
+                        // Every thread uses its own channel, as different servers would
+                        futures.add(scheduler.edit(thread, messageId, embed, record(messageSent)));
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals((long) threads * messagesPerThread * editsPerMessage, scheduler.getEditsRequested());
+        long sentCount = 0;
+        for (Map.Entry<Long, List<EmbedBuilder>> entry : sent.entrySet()) {
+            List<EmbedBuilder> messageSent = entry.getValue();
+            assertSame(latest.get(entry.getKey()), messageSent.get(messageSent.size() - 1), "message " + entry.getKey());
+            sentCount += messageSent.size();
+        }
+        assertEquals(sentCount, scheduler.getEditsSent());
+        assertTrue(sentCount < scheduler.getEditsRequested(), "no edits were merged");
+    }
+
+    private static Function<EmbedBuilder, CompletableFuture<?>> record(List<EmbedBuilder> sent) {
+        return embed -> {
+            sent.add(embed);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the counters Game keeps up to date match a full scan of the board, over random games.
+ */
+class GameCountersTest {
+    private static final int[][] SIZES = {{9, 9, 10}, {16, 16, 40}, {16, 30, 99}, {30, 30, 300}, {5, 40, 60}};
+
+    @Test
+    void countersMatchScanAfterEveryMove() {
+        for (int[] size : SIZES) {
+            for (long seed = 1; seed <= 50; seed++) {
+                Game game = new Game(size[0], size[1], size[2], seed);
+                Random random = new Random(seed);
+                for (int move = 0; move < 500 && !game.hasEnded() && !game.hasWin(); move++) {
+                    playRandomMove(game, random);
+                    // Bombs aren't on the board until the first click
+                    if (game.hasStarted() && !game.hasEnded()) {
+                        assertCountersMatch(game, "seed " + seed + ", move " + move);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void countersAreRecountedWhenReadBack() throws IOException {
+        for (long seed = 1; seed <= 50; seed++) {
+            Game game = new Game(16, 30, 99, seed);
+            Random random = new Random(seed);
+            for (int move = 0; move < 40 && !game.hasEnded() && !game.hasWin(); move++) {
+                playRandomMove(game, random);
+            }
+            if (game.hasEnded()) {
+                continue;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            game.write(new DataOutputStream(bytes));
+            Game read = Game.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 3);
+
+            assertEquals(game.getHiddenTiles(), read.getHiddenTiles());
+            assertEquals(game.getFlagsPlaced(), read.getFlagsPlaced());
+            assertEquals(game.getMoves(), read.getMoves());
+            assertCountersMatch(read, "seed " + seed);
+        }
+    }
+
+    @Test
+    void winIsDetectedWhenLastSafeTileIsRevealed() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Game game = new Game(16, 16, 40, seed);
+            game.onClick(8, 8);
+            Board board = game.getBoard();
+            for (int index = 0; index < board.size(); index++) {
+                if (!board.hasMine(index) && !board.isRevealed(index)) {
+                    assertEquals(false, game.hasWin(), "won with tiles left, seed " + seed);
+                    game.onClick(board.getRow(index), board.getColumn(index));
+                }
+            }
+            assertEquals(true, game.hasWin(), "not won, seed " + seed);
+            assertEquals(0, game.getHiddenTiles());
+        }
+    }
+
+    /**
+     * Flags, chords, or clicks a random tile, mostly clicking tiles without a bomb so games last longer.
+     */
+    private static void playRandomMove(Game game, Random random) {
+        Board board = game.getBoard();
+        int row = random.nextInt(game.getRows());
+        int col = random.nextInt(game.getColumns());
+        int kind = random.nextInt(10);
+        if (kind < 2) {
+            game.addFlag(row, col);
+        } else if (kind < 3) {
+            game.chord(row, col);
+        } else if (kind < 4 || !game.hasStarted()) {
+            game.onClick(row, col);
+        } else {
+            int index = board.getIndex(row, col);
+            while (board.hasMine(index)) {
+                index = (index + 1) % board.size();
+            }
+            game.onClick(board.getRow(index), board.getColumn(index));
+        }
+    }
+
+    private static void assertCountersMatch(Game game, String context) {
+        Board board = game.getBoard();
+        int hidden = 0;
+        int flags = 0;
+        for (int index = 0; index < board.size(); index++) {
+            if (!board.hasMine(index) && !board.isRevealed(index)) {
+                hidden++;
+            }
+            if (board.hasFlag(index)) {
+                flags++;
+            }
+        }
+
+        assertEquals(hidden, game.getHiddenTiles(), "hidden tiles, " + context);
+        assertEquals(flags, game.getFlagsPlaced(), "flags, " + context);
+        assertEquals(game.getMines() - flags, game.getMinesLeft(), "bombs left, " + context);
+        assertEquals(hidden == 0, game.hasWin(), "win, " + context);
+    }
+}
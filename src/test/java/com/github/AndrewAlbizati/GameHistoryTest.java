@@ -0,0 +1,106 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the history reads back the same across segments of the file, whatever size the segments are mapped in.
+ */
+class GameHistoryTest {
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-test");
+        path = directory.resolve("history.dat");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        // The file stays mapped until the buffers are collected, which some systems need before it can be deleted
+        System.gc();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(directory.resolve("expected.dat"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void recordsAreReadBackAcrossSegments() throws IOException {
+        // Small segments so the records span many of them, and the file grows in the middle of one
+        GameHistory history = new GameHistory(path, 1000);
+        int records = 150_000;
+        for (int i = 0; i < records; i++) {
+            record(history, i);
+        }
+        history.force();
+
+        for (int recordsPerSegment : new int[] {1000, 777, 1 << 24}) {
+            GameHistory reopened = new GameHistory(path, recordsPerSegment);
+            assertEquals(records, reopened.size());
+            assertSameStats(history, reopened);
+        }
+    }
+
+    @Test
+    void recordsAddedAfterReopeningAreKept() throws IOException {
+        GameHistory history = new GameHistory(path, 1000);
+        for (int i = 0; i < 2500; i++) {
+            record(history, i);
+        }
+
+        // Reopened partway through a segment, then grown past the end of the file
+        GameHistory reopened = new GameHistory(path, 1000);
+        GameHistory expected = new GameHistory(directory.resolve("expected.dat"), 1000);
+        for (int i = 0; i < 70_000; i++) {
+            if (i >= 2500) {
+                record(reopened, i);
+            }
+            record(expected, i);
+        }
+        assertSameStats(expected, reopened);
+        assertSameStats(expected, new GameHistory(path));
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        assertThrows(IOException.class, () -> new GameHistory(path));
+    }
+
+    private static void record(GameHistory history, int i) throws IOException {
+        Difficulty difficulty = Difficulty.values()[i % 3];
+        history.record(i % 500, i % 7, difficulty, i % 3 != 1, 10_000 + i * 31L % 100_000, i % 11 == 0 ? 20_000 + i % 5 : 0);
+    }
+
+    private static void assertSameStats(GameHistory expected, GameHistory actual) {
+        for (long userId = 0; userId < 500; userId++) {
+            GameHistory.PlayerStats expectedStats = expected.getStats(userId);
+            GameHistory.PlayerStats actualStats = actual.getStats(userId);
+            assertEquals(expectedStats.getWins(), actualStats.getWins());
+            assertEquals(expectedStats.getLosses(), actualStats.getLosses());
+            for (Difficulty difficulty : Difficulty.values()) {
+                assertEquals(expectedStats.getBestTime(difficulty), actualStats.getBestTime(difficulty));
+            }
+        }
+
+        for (long serverId = 0; serverId < 7; serverId++) {
+            for (Difficulty difficulty : Difficulty.values()) {
+                List<GameHistory.Leaderboard.Entry> entries = expected.getLeaderboard(serverId, difficulty);
+                assertEquals(entries, actual.getLeaderboard(serverId, difficulty));
+            }
+        }
+        for (int day = 20_000; day < 20_005; day++) {
+            assertEquals(expected.getDailyLeaderboard(day), actual.getDailyLeaderboard(day));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends commands for several games from many threads at once, and checks that each game ends up the same as when the
+ * commands it ran are played again one after another.
+ */
+class GameMailboxTest {
+    private static final int GAMES = 8;
+    private static final int THREADS = 8;
+    private static final int COMMANDS_PER_THREAD = 2000;
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void interleavedCommandsMatchSequentialReplay() throws Exception {
+        Game[] games = new Game[GAMES];
+        GameMailbox[] mailboxes = new GameMailbox[GAMES];
+        // The moves each game ran, in the order it ran them, only touched from inside the game's mailbox
+        List<List<int[]>> ran = new ArrayList<>();
+        AtomicInteger[] running = new AtomicInteger[GAMES];
+        for (int g = 0; g < GAMES; g++) {
+            games[g] = new Game(16, 30, 99, g + 1);
+            mailboxes[g] = new GameMailbox(pool);
+            ran.add(new ArrayList<>());
+            running[g] = new AtomicInteger();
+        }
+
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<List<CompletableFuture<Object>>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            List<CompletableFuture<Object>> threadResults = new ArrayList<>();
+            results.add(threadResults);
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                    int g = random.nextInt(GAMES);
+                    int[] move = {random.nextInt(3), random.nextInt(16), random.nextInt(30)};
+                    Game game = games[g];
+                    threadResults.add(mailboxes[g].submit(() -> {
+                        if (running[g].incrementAndGet() != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        ran.get(g).add(move);
+                        play(game, move);
+                        running[g].decrementAndGet();
+                        return null;
+                    }));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Each thread's list is only read once the thread has finished adding to it
+        for (List<CompletableFuture<Object>> threadResults : results) {
+            for (CompletableFuture<Object> result : threadResults) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(0, overlaps.get(), "commands for one game ran at the same time");
+        int total = 0;
+        for (int g = 0; g < GAMES; g++) {
+            Game replay = new Game(16, 30, 99, g + 1);
+            for (int[] move : ran.get(g)) {
+                play(replay, move);
+            }
+            total += ran.get(g).size();
+            assertArrayEquals(toBytes(replay), toBytes(games[g]), "game " + g);
+        }
+        assertEquals(THREADS * COMMANDS_PER_THREAD, total);
+    }
+
+    @Test
+    void commandsFromOneThreadRunInOrder() throws Exception {
+        GameMailbox mailbox = new GameMailbox(pool);
+        List<Integer> order = new ArrayList<>();
+        CompletableFuture<?> last = null;
+        for (int i = 0; i < 10_000; i++) {
+            int n = i;
+            last = mailbox.submit(() -> order.add(n));
+        }
+        last.get(30, TimeUnit.SECONDS);
+
+        assertEquals(10_000, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void failedCommandDoesNotStopLaterCommands() throws Exception {
+        GameMailbox mailbox = new GameMailbox(pool);
+        CompletableFuture<Object> failed = mailbox.submit(() -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        // A command run directly through execute() throws on the pool's thread instead of into a future
+        mailbox.execute(() -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        CompletableFuture<String> after = mailbox.submit(() -> "ran");
+
+        assertEquals("ran", after.get(30, TimeUnit.SECONDS));
+        assertTrue(failed.isCompletedExceptionally());
+    }
+
+    /**
+     * Plays a move, where clicks go to the first tile without a bomb from the chosen tile so games last longer.
+     * Which tile that is only depends on the moves before it, so a replay in the same order clicks the same tiles.
+     */
+    private static void play(Game game, int[] move) {
+        if (game.hasEnded() || game.hasWin()) {
+            return;
+        }
+        Board board = game.getBoard();
+        switch (move[0]) {
+            case 0 -> {
+                int index = board.getIndex(move[1], move[2]);
+                while (game.hasStarted() && board.hasMine(index)) {
+                    index = (index + 1) % board.size();
+                }
+                game.onClick(board.getRow(index), board.getColumn(index));
+            }
+            case 1 -> game.addFlag(move[1], move[2]);
+            default -> game.chord(move[1], move[2]);
+        }
+    }
+
+    private static byte[] toBytes(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creates, finishes and removes games from many threads at once, and checks that the counts still add up.
+ */
+class GameRegistryTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+    private static final int PLAYERS = 200;
+    private static final int MAX_GAMES = 50;
+
+    @Test
+    void countsStayConsistentUnderConcurrentUse() throws InterruptedException {
+        // Long enough that no game is evicted during the test
+        GameRegistry registry = new GameRegistry(60_000, MAX_GAMES);
+        LongAdder removed = new LongAdder();
+        Set<Game> removedGames = ConcurrentHashMap.newKeySet();
+        AtomicInteger removedTwice = new AtomicInteger();
+        registry.setRemovalListener((userId, game) -> {
+            removed.increment();
+            if (!removedGames.add(game)) {
+                removedTwice.incrementAndGet();
+            }
+        });
+
+        LongAdder created = new LongAdder();
+        AtomicInteger overCap = new AtomicInteger();
+        AtomicInteger tooMany = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    long userId = random.nextInt(PLAYERS);
+                    Game game = registry.get(userId);
+                    int operation = random.nextInt(4);
+                    if (game == null || operation == 0) {
+                        try {
+                            registry.create(userId, new Game(9, 9, 10, i));
+                            created.increment();
+                        } catch (IllegalStateException e) {
+                            if (e.getMessage().startsWith("Too many")) {
+                                tooMany.incrementAndGet();
+                            }
+                        }
+                    } else if (operation == 1) {
+                        // Counted by the listener, and only by the thread that actually removed it
+                        registry.complete(userId, game);
+                    } else if (operation == 2) {
+                        registry.remove(userId, game);
+                    }
+
+                    // Failed assertions on these threads wouldn't fail the test, so they are counted instead
+                    int live = registry.getLiveGames();
+                    if (live < 0 || live > MAX_GAMES) {
+                        overCap.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int[] left = new int[1];
+        registry.forEach((userId, game) -> left[0]++);
+        assertEquals(left[0], registry.getLiveGames());
+        assertTrue(left[0] <= MAX_GAMES);
+        assertEquals(0, overCap.get(), "live games went over the cap");
+        assertEquals(0, removedTwice.get(), "games removed more than once");
+        assertEquals(removed.sum(), registry.getCompletedGames());
+        assertEquals(0, registry.getEvictedGames());
+        assertTrue(tooMany.get() > 0, "the cap was never reached");
+        // Every game created is still live, completed, or removed without being counted as finished
+        assertTrue(created.sum() >= left[0] + registry.getCompletedGames());
+    }
+
+    @Test
+    void createAndCompleteRace() throws InterruptedException {
+        // Every round, all threads create and finish a game for the same player, so only one game is live at a time
+        GameRegistry registry = new GameRegistry(60_000, MAX_GAMES);
+        LongAdder completed = new LongAdder();
+        registry.setRemovalListener((userId, game) -> completed.increment());
+
+        for (int round = 0; round < 500; round++) {
+            AtomicInteger winners = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Game game = new Game(9, 9, 10, t);
+                Thread thread = new Thread(() -> {
+                    awaitQuietly(start);
+                    try {
+                        registry.create(1, game);
+                        winners.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // Another thread created the game first
+                    }
+                    registry.complete(1, game);
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertTrue(winners.get() >= 1, "round " + round);
+            assertNull(registry.get(1), "round " + round);
+            assertEquals(0, registry.getLiveGames(), "round " + round);
+        }
+        assertEquals(completed.sum(), registry.getCompletedGames());
+    }
+
+    @Test
+    void idleGamesAreEvicted() throws InterruptedException {
+        GameRegistry registry = new GameRegistry(100, MAX_GAMES);
+        Set<Long> evicted = ConcurrentHashMap.newKeySet();
+        registry.setRemovalListener((userId, game) -> evicted.add(userId));
+
+        for (long userId = 0; userId < 20; userId++) {
+            registry.create(userId, new Game(9, 9, 10, userId));
+        }
+        // Player 0 keeps playing, so only their game is kept
+        long end = System.currentTimeMillis() + 500;
+        while (System.currentTimeMillis() < end) {
+            assertNotNull(registry.get(0));
+            Thread.sleep(20);
+        }
+
+        assertEquals(19, evicted.size());
+        assertTrue(!evicted.contains(0L));
+        assertEquals(19, registry.getEvictedGames());
+        assertEquals(1, registry.getLiveGames());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
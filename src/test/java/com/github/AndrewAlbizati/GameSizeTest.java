@@ -0,0 +1,37 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which amounts of bombs a board can have, including boards too small to fit the first click's 3x3 area.
+ */
+class GameSizeTest {
+    @Test
+    void smallBoardsWithoutBombsCanBePlayed() {
+        for (int rows = 1; rows <= 3; rows++) {
+            for (int cols = 1; cols <= 3; cols++) {
+                Game game = new Game(rows, cols, 0, 1);
+                game.onClick(0, 0);
+                assertTrue(game.hasWin(), rows + "x" + cols);
+            }
+        }
+    }
+
+    @Test
+    void smallBoardsCantHaveBombs() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new Game(2, 2, 1));
+        assertEquals("A 2x2 board can have at most 0 bombs", e.getMessage());
+    }
+
+    @Test
+    void boardsKeepTheFirstClickAreaFree() {
+        new Game(4, 4, 7);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new Game(4, 4, 8));
+        assertEquals("A 4x4 board can have at most 7 bombs", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new Game(4, 4, -1));
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that metrics are written in the Prometheus text format, with numbers in plain decimal.
+ */
+class MetricsTest {
+    @Test
+    void histogramBoundsArePlainDecimal() {
+        Metrics metrics = new Metrics();
+        Metrics.Histogram histogram = metrics.histogram("latency_seconds", "Latency", "command=\"click\"");
+        histogram.observe(TimeUnit.MICROSECONDS.toNanos(50));
+        histogram.observe(TimeUnit.MILLISECONDS.toNanos(3));
+
+        StringBuilder sb = new StringBuilder();
+        metrics.write(sb);
+        String text = sb.toString();
+
+        assertTrue(text.contains("latency_seconds_bucket{command=\"click\",le=\"0.0001\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{command=\"click\",le=\"0.00025\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{command=\"click\",le=\"0.005\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{command=\"click\",le=\"1\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{command=\"click\",le=\"2.5\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{command=\"click\",le=\"+Inf\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_sum{command=\"click\"} 0.00305\n"), text);
+        assertTrue(text.contains("latency_seconds_count{command=\"click\"} 2\n"), text);
+        assertTrue(!text.contains("E-"), text);
+    }
+
+    @Test
+    void gaugesArePlainDecimal() {
+        Metrics metrics = new Metrics();
+        metrics.gauge("small", "A small value", "", () -> 0.00002);
+        metrics.gauge("missing", "No value", "", () -> Double.NaN);
+
+        StringBuilder sb = new StringBuilder();
+        metrics.write(sb);
+        assertEquals("""
+                # HELP small A small value
+                # TYPE small gauge
+                small 0.00002
+                # HELP missing No value
+                # TYPE missing gauge
+                missing NaN
+                """, sb.toString());
+    }
+}
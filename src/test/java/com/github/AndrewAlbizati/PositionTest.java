@@ -0,0 +1,96 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks Position.parse() against a simple regex version of it, and that formatted positions are read back the same.
+ */
+class PositionTest {
+    private static final Pattern POSITION = Pattern.compile(" *([A-Za-z]{1,3})([0-9]{1,4}) *");
+
+    // Mostly characters that can be part of a position, with a few that look like they could be
+    private static final String CHARACTERS = "aAbBzZyY0123456789      \t-+_.\u00E9\u00C0\uFF11\u0660";
+
+    @Test
+    void parseMatchesRegex() {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1_000_000; i++) {
+            sb.setLength(0);
+            int length = random.nextInt(10);
+            for (int c = 0; c < length; c++) {
+                sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+
+            String text = sb.toString();
+            assertEquals(parseWithRegex(text), Position.parse(text), "\"" + text + "\"");
+        }
+    }
+
+    @Test
+    void parsePartOfText() {
+        Random random = new Random(2);
+        for (int i = 0; i < 100_000; i++) {
+            int row = random.nextInt(Position.MAX_ROWS);
+            int col = random.nextInt(Position.MAX_COLUMNS);
+            String position = Position.format(row, col);
+            String text = "/click " + position + " x";
+
+            assertEquals(Position.pack(row, col), Position.parse(text, 6, text.length() - 1), text);
+        }
+    }
+
+    @Test
+    void formatRoundTripsEveryRow() {
+        for (int row = 0; row < Position.MAX_ROWS; row++) {
+            for (int col : new int[] {0, 8, 9, 98, 99, 998, 999, Position.MAX_COLUMNS - 1}) {
+                String text = Position.format(row, col);
+                int position = Position.parse(text);
+                assertEquals(row, Position.getRow(position), text);
+                assertEquals(col, Position.getColumn(position), text);
+                assertEquals(position, Position.parse(text.toLowerCase()), text);
+                assertEquals(Position.getRowNameLength(row), Position.getRowName(row).length(), text);
+            }
+        }
+    }
+
+    @Test
+    void rowNamesAreInOrder() {
+        assertEquals("A", Position.getRowName(0));
+        assertEquals("Z", Position.getRowName(25));
+        assertEquals("AA", Position.getRowName(26));
+        assertEquals("ZZ", Position.getRowName(26 + 26 * 26 - 1));
+        assertEquals("AAA", Position.getRowName(26 + 26 * 26));
+        assertEquals("ZZZ", Position.getRowName(Position.MAX_ROWS - 1));
+        assertEquals(Position.INVALID, Position.parse("AAAA1"));
+        assertEquals(Position.INVALID, Position.parse("A10000"));
+        assertEquals(Position.INVALID, Position.parse("A0"));
+        assertEquals(Position.pack(0, 0), Position.parse(" a0001 "));
+    }
+
+    /**
+     * The letters are read as a number where A is 1 and Z is 26, so AA follows Z.
+     */
+    private static int parseWithRegex(String text) {
+        Matcher matcher = POSITION.matcher(text);
+        if (!matcher.matches()) {
+            return Position.INVALID;
+        }
+
+        int row = 0;
+        for (char c : matcher.group(1).toUpperCase().toCharArray()) {
+            row = row * 26 + (c - 'A' + 1);
+        }
+        int col = Integer.parseInt(matcher.group(2));
+        if (col == 0) {
+            return Position.INVALID;
+        }
+        return Position.pack(row - 1, col - 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.AndrewAlbizati;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the flood fill in Board.reveal() against the recursive reveal it replaced, on random boards with flags.
+ */
+class RevealTest {
+    @Test
+    void revealMatchesRecursiveReveal() throws Throwable {
+        // The recursive reveal goes as deep as the tiles it reveals, so it needs a much larger stack than usual
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                compareReveals();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "reveal", 512L << 20);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private static void compareReveals() {
+        for (long seed = 1; seed <= 500; seed++) {
+            Random random = new Random(seed);
+            // Every fiftieth board is larger, which the recursive reveal can only handle with the larger stack
+            int rows = 1 + random.nextInt(seed % 50 == 0 ? 300 : 100);
+            int cols = 1 + random.nextInt(seed % 50 == 0 ? 300 : 100);
+            int size = rows * cols;
+            // From no bombs, where one click reveals the whole board, up to a quarter of the board
+            int mines = random.nextInt(Math.max(size / 4, 1));
+            int flags = random.nextInt(size / 10 + 1);
+
+            Board board = new Board(rows, cols);
+            int first = random.nextInt(size);
+            if (mines > size - 9) {
+                mines = 0;
+            }
+            board.placeMines(mines, first, seed);
+            for (int i = 0; i < flags; i++) {
+                board.setFlag(random.nextInt(size), true);
+            }
+            Board expected = new Board(rows, cols);
+            expected.copyFrom(board);
+
+            for (int click = 0; click < 20; click++) {
+                int index = click == 0 ? first : random.nextInt(size);
+                String context = "seed " + seed + ", " + rows + "x" + cols + ", click on " + Position.format(board.getRow(index), board.getColumn(index));
+
+                Set<Integer> expectedTiles = new HashSet<>();
+                revealRecursively(expected, board.getRow(index), board.getColumn(index), expectedTiles);
+                int revealed = board.reveal(index);
+
+                Set<Integer> tiles = new HashSet<>();
+                for (int i = 0; i < revealed; i++) {
+                    tiles.add(board.getRevealedTile(i));
+                }
+                assertEquals(expectedTiles.size(), revealed, context);
+                assertEquals(expectedTiles, tiles, context);
+                for (int i = 0; i < size; i++) {
+                    assertEquals(expected.isRevealed(i), board.isRevealed(i), context + ", tile " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void flagsStopTheReveal() {
+        // No bombs, and a wall of flags down column 5, so a click on the left only reveals the left
+        Board board = new Board(10, 10);
+        for (int row = 0; row < 10; row++) {
+            board.setFlag(board.getIndex(row, 5), true);
+        }
+
+        assertEquals(50, board.reveal(board.getIndex(4, 0)));
+        for (int index = 0; index < board.size(); index++) {
+            assertEquals(board.getColumn(index) < 5, board.isRevealed(index), "tile " + index);
+        }
+        assertEquals(0, board.reveal(board.getIndex(4, 5)));
+        assertEquals(40, board.reveal(board.getIndex(4, 9)));
+    }
+
+    /**
+     * The reveal from before the flood fill, which recursed into every neighbour of a tile without a number.
+     */
+    private static void revealRecursively(Board board, int row, int col, Set<Integer> tiles) {
+        if (row < 0 || row >= board.getRows() || col < 0 || col >= board.getColumns()) {
+            return;
+        }
+        int index = board.getIndex(row, col);
+        if (board.isRevealed(index) || board.hasFlag(index)) {
+            return;
+        }
+
+        board.setRevealed(index);
+        tiles.add(index);
+        if (board.hasMine(index) || board.getNumber(index) != 0) {
+            return;
+        }
+
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                revealRecursively(board, r, c, tiles);
+            }
+        }
+    }
+}